@@ -0,0 +1,73 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared sample data for the benchmarks
+ * RESPONSE mirrors a typical Gemini answer: markdown-fenced JSON with 9 ingredients and 4 steps
+ */
+public final class BenchmarkRecipes {
+    public static final String RESPONSE = """
+            ```json
+            {
+              "dishName": "親子丼",
+              "totalWeightGrams": 100,
+              "ingredients": [
+                {"item": "customcookingmod:rice", "amountType": "count", "amount": 0.5},
+                {"item": "minecraft:chicken", "amountType": "count", "amount": 0.2},
+                {"item": "minecraft:egg", "amountType": "count", "amount": 0.3},
+                {"item": "customcookingmod:soy_sauce", "amountType": "grams", "amount": 5.0},
+                {"item": "customcookingmod:mirin", "amountType": "grams", "amount": 4.0},
+                {"item": "customcookingmod:cooking_sake", "amountType": "grams", "amount": 3.0},
+                {"item": "minecraft:sugar", "amountType": "grams", "amount": 2.0},
+                {"item": "kaleidoscope_cookery:lettuce", "amountType": "count", "amount": 0.05},
+                {"item": "customcookingmod:salt", "amountType": "grams", "amount": 0.3}
+              ],
+              "steps": [
+                {"action": "cook_rice", "description": "炊飯器でご飯を炊く"},
+                {"action": "chop", "description": "まな板で鶏肉を一口大に切る"},
+                {"action": "simmer", "description": "鍋で鶏肉を醤油、みりん、料理酒、砂糖で煮る"},
+                {"action": "mix_in_bowl", "description": "溶き卵を回し入れて半熟になったらご飯にのせる"}
+              ],
+              "nutritionPer100g": 3.0,
+              "saturationPer100g": 0.6,
+              "expirationHours": 24
+            }
+            ```""";
+
+    private BenchmarkRecipes() {
+    }
+
+    /**
+     * Build the RecipeData equivalent of RESPONSE without going through Gson
+     */
+    public static RecipeGenerator.RecipeData recipe() {
+        RecipeGenerator.RecipeData data = new RecipeGenerator.RecipeData();
+        data.dishName = "親子丼";
+        data.totalWeightGrams = 100;
+        data.nutritionPer100g = 3.0f;
+        data.saturationPer100g = 0.6f;
+        data.expirationHours = 24;
+
+        List<RecipeGenerator.RecipeData.Ingredient> ingredients = new ArrayList<>();
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("customcookingmod:rice", "count", 0.5f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("minecraft:chicken", "count", 0.2f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("minecraft:egg", "count", 0.3f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("customcookingmod:soy_sauce", "grams", 5.0f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("customcookingmod:mirin", "grams", 4.0f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("customcookingmod:cooking_sake", "grams", 3.0f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("minecraft:sugar", "grams", 2.0f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("kaleidoscope_cookery:lettuce", "count", 0.05f));
+        ingredients.add(new RecipeGenerator.RecipeData.Ingredient("customcookingmod:salt", "grams", 0.3f));
+        data.ingredients = ingredients;
+
+        List<RecipeGenerator.RecipeData.CookingStep> steps = new ArrayList<>();
+        steps.add(new RecipeGenerator.RecipeData.CookingStep("cook_rice", "炊飯器でご飯を炊く"));
+        steps.add(new RecipeGenerator.RecipeData.CookingStep("chop", "まな板で鶏肉を一口大に切る"));
+        steps.add(new RecipeGenerator.RecipeData.CookingStep("simmer", "鍋で鶏肉を醤油、みりん、料理酒、砂糖で煮る"));
+        steps.add(new RecipeGenerator.RecipeData.CookingStep("mix_in_bowl", "溶き卵を回し入れて半熟になったらご飯にのせる"));
+        data.steps = steps;
+        return data;
+    }
+}
@@ -0,0 +1,71 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks for the per-request string work in RecipeGenerator
+ * buildPrompt (splicing the request into the compiled template) and extractJSON + parseRecipeData on a realistic response
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecipeGeneratorBenchmark {
+    private RecipeGenerator generator;
+
+    @Setup
+    public void setup() {
+        // The prompt template reads the item registry
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        generator = new RecipeGenerator(new OfflineBackend());
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return generator.buildPrompt("親子丼", "donburi");
+    }
+
+    @Benchmark
+    public String extractJSON() {
+        return generator.extractJSON(BenchmarkRecipes.RESPONSE);
+    }
+
+    @Benchmark
+    public RecipeGenerator.RecipeData parseRecipeData() {
+        return generator.parseRecipeData(BenchmarkRecipes.RESPONSE, "親子丼");
+    }
+
+    /**
+     * Backend that is never called; the benchmarks only exercise prompt building and parsing
+     */
+    private static class OfflineBackend implements RecipeBackend {
+        @Override
+        public CompletableFuture<String> generateRecipe(String prompt) {
+            return CompletableFuture.completedFuture(BenchmarkRecipes.RESPONSE);
+        }
+
+        @Override
+        public CompletableFuture<String> generateRecipeStreaming(String prompt, Consumer<String> onText) {
+            onText.accept(BenchmarkRecipes.RESPONSE);
+            return CompletableFuture.completedFuture(BenchmarkRecipes.RESPONSE);
+        }
+
+        @Override
+        public String getName() {
+            return "offline";
+        }
+    }
+}
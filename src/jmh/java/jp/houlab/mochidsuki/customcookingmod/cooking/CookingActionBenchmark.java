@@ -0,0 +1,28 @@
+package jp.houlab.mochidsuki.customcookingmod.cooking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for CookingAction.fromId
+ * Covers the first entry, the last real entry and an unknown id (falls through to NONE)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CookingActionBenchmark {
+    @Param({"stir_fry", "fry", "unknown_action"})
+    public String id;
+
+    @Benchmark
+    public CookingAction fromId() {
+        return CookingAction.fromId(id);
+    }
+}
@@ -0,0 +1,48 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * Protocol 1 JSON-in-a-string encoding of RecipeData, kept only as a size and speed baseline for RecipeDataCodec
+ */
+final class LegacyJsonRecipeCodec {
+    private static final Gson GSON = new Gson();
+
+    private LegacyJsonRecipeCodec() {
+    }
+
+    static void write(FriendlyByteBuf buf, RecipeGenerator.RecipeData data) {
+        JsonObject json = new JsonObject();
+        json.addProperty("dishName", data.dishName);
+        json.addProperty("totalWeightGrams", data.totalWeightGrams);
+        json.addProperty("nutritionPer100g", data.nutritionPer100g);
+        json.addProperty("saturationPer100g", data.saturationPer100g);
+        json.addProperty("expirationHours", data.expirationHours);
+
+        JsonObject ingredientsObj = new JsonObject();
+        for (int i = 0; i < data.ingredients.size(); i++) {
+            RecipeGenerator.RecipeData.Ingredient ing = data.ingredients.get(i);
+            JsonObject ingObj = new JsonObject();
+            ingObj.addProperty("item", ing.itemId);
+            ingObj.addProperty("amountType", ing.amountType);
+            ingObj.addProperty("amount", ing.amount);
+            ingredientsObj.add("ing" + i, ingObj);
+        }
+        json.add("ingredients", ingredientsObj);
+
+        JsonObject stepsObj = new JsonObject();
+        for (int i = 0; i < data.steps.size(); i++) {
+            RecipeGenerator.RecipeData.CookingStep step = data.steps.get(i);
+            JsonObject stepObj = new JsonObject();
+            stepObj.addProperty("action", step.action);
+            stepObj.addProperty("description", step.description);
+            stepsObj.add("step" + i, stepObj);
+        }
+        json.add("steps", stepsObj);
+
+        buf.writeUtf(GSON.toJson(json));
+    }
+}
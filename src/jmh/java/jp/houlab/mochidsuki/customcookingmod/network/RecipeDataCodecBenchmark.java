@@ -0,0 +1,84 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import jp.houlab.mochidsuki.customcookingmod.ai.BenchmarkRecipes;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.Bootstrap;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Byte-size and speed comparison of the binary RecipeDataCodec against the protocol 1 JSON encoding
+ * encodedBytes (size of one encoded recipe) is reported as a secondary result next to the timing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecipeDataCodecBenchmark {
+    private RecipeGenerator.RecipeData recipe;
+    private ByteBuf backing;
+    private FriendlyByteBuf buf;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+        public long encodedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        // Registry ids are needed to resolve vanilla items
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        recipe = BenchmarkRecipes.recipe();
+        backing = Unpooled.buffer(4096);
+        buf = new FriendlyByteBuf(backing);
+    }
+
+    @TearDown
+    public void tearDown() {
+        backing.release();
+    }
+
+    @Benchmark
+    public int binary(EncodedSize size) {
+        buf.clear();
+        RecipeDataCodec.write(buf, recipe);
+        size.encodedBytes = buf.writerIndex();
+        return buf.writerIndex();
+    }
+
+    @Benchmark
+    public int legacyJson(EncodedSize size) {
+        buf.clear();
+        LegacyJsonRecipeCodec.write(buf, recipe);
+        size.encodedBytes = buf.writerIndex();
+        return buf.writerIndex();
+    }
+
+    @Benchmark
+    public RecipeGenerator.RecipeData binaryRoundTrip() {
+        buf.clear();
+        RecipeDataCodec.write(buf, recipe);
+        return RecipeDataCodec.read(buf);
+    }
+}
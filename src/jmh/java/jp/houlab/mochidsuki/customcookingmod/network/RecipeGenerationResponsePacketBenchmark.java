@@ -0,0 +1,70 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import jp.houlab.mochidsuki.customcookingmod.ai.BenchmarkRecipes;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.Bootstrap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the recipe response packet wire format
+ * The buffer is reused across invocations so only the codec's own allocations are measured
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecipeGenerationResponsePacketBenchmark {
+    private RecipeGenerationResponsePacket packet;
+    private RecipeGenerationResponsePacket hashOnlyPacket;
+    private ByteBuf backing;
+    private FriendlyByteBuf buf;
+
+    @Setup
+    public void setup() {
+        // Registry ids are needed to resolve vanilla items
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        packet = RecipeGenerationResponsePacket.success(BenchmarkRecipes.recipe(), true);
+        hashOnlyPacket = RecipeGenerationResponsePacket.success(BenchmarkRecipes.recipe(), false);
+        backing = Unpooled.buffer(4096);
+        buf = new FriendlyByteBuf(backing);
+    }
+
+    @TearDown
+    public void tearDown() {
+        backing.release();
+    }
+
+    @Benchmark
+    public int encode() {
+        buf.clear();
+        RecipeGenerationResponsePacket.encode(packet, buf);
+        return buf.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeHashOnly() {
+        buf.clear();
+        RecipeGenerationResponsePacket.encode(hashOnlyPacket, buf);
+        return buf.writerIndex();
+    }
+
+    @Benchmark
+    public RecipeGenerationResponsePacket roundTrip() {
+        buf.clear();
+        RecipeGenerationResponsePacket.encode(packet, buf);
+        return RecipeGenerationResponsePacket.decode(buf);
+    }
+}
@@ -1,5 +1,9 @@
 package jp.houlab.mochidsuki.customcookingmod;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraftforge.common.ForgeConfigSpec;
@@ -35,15 +39,211 @@ public class Config {
                     "Get your API key from: https://ai.google.dev/")
             .define("geminiApiKey", "");
 
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> GEMINI_API_KEYS = BUILDER
+            .comment("Pool of API keys to spread requests across (replaces geminiApiKey when not empty)",
+                    "Each entry is a bare key, or \"key=<key>;weight=<n>;rpm=<requests per minute>;endpoint=<API base URL>\"",
+                    "weight, rpm (0 = no quota) and endpoint (e.g. https://generativelanguage.googleapis.com/v1beta) are optional")
+            .defineListAllowEmpty("geminiApiKeys", List.of(), obj -> obj instanceof String);
+
+    private static final ForgeConfigSpec.IntValue GEMINI_KEY_FAILURE_THRESHOLD = BUILDER
+            .comment("Consecutive 429/403 responses after which a pooled API key is taken out of rotation")
+            .defineInRange("geminiKeyFailureThreshold", 3, 1, 100);
+
+    private static final ForgeConfigSpec.IntValue GEMINI_KEY_COOLDOWN_SECONDS = BUILDER
+            .comment("Seconds a pooled API key stays out of rotation before it is used again")
+            .defineInRange("geminiKeyCooldownSeconds", 60, 1, 86400);
+
     private static final ForgeConfigSpec.ConfigValue<String> GEMINI_API_ENDPOINT = BUILDER
             .comment("Google Gemini API endpoint URL",
                     "Using Gemini 2.0 Flash Experimental (latest available model)")
             .define("geminiApiEndpoint", "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash-exp:generateContent");
 
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> GEMINI_CASCADE_MODELS = BUILDER
+            .comment("Models tried in order for each recipe, fastest and cheapest first (e.g. [\"gemini-2.0-flash-lite\", \"gemini-2.0-flash\"])",
+                    "The next model is asked only when the previous one's recipe fails validation",
+                    "Each name replaces the model in geminiApiEndpoint; empty uses only the model in geminiApiEndpoint")
+            .defineListAllowEmpty("geminiCascadeModels", List.of(), Config::validateModelName);
+
     private static final ForgeConfigSpec.IntValue GEMINI_TIMEOUT_SECONDS = BUILDER
             .comment("Timeout for AI API requests in seconds")
             .defineInRange("geminiTimeoutSeconds", 60, 10, 300);
 
+    private static final ForgeConfigSpec.BooleanValue GEMINI_STREAMING = BUILDER
+            .comment("Use the streaming endpoint (streamGenerateContent) for recipe generation",
+                    "Players see the dish name, nutrition and ingredients while the rest is still generating")
+            .define("geminiStreaming", false);
+
+    private static final ForgeConfigSpec.BooleanValue GEMINI_STRUCTURED_OUTPUT = BUILDER
+            .comment("Ask Gemini for JSON output constrained by the recipe schema (responseMimeType + responseSchema)",
+                    "Prevents responses with prose, markdown or missing fields that would fail to parse")
+            .define("geminiStructuredOutput", true);
+
+    private static final ForgeConfigSpec.BooleanValue GEMINI_CONTEXT_CACHE = BUILDER
+            .comment("Register the static part of the recipe prompt (ingredient catalog, appliances, rules) with the",
+                    "Gemini cachedContents API once per server session; requests then only send the dish name and category",
+                    "Falls back to sending the full prompt if the model does not accept the cache")
+            .define("geminiContextCache", false);
+
+    private static final ForgeConfigSpec.IntValue GEMINI_CONTEXT_CACHE_TTL_MINUTES = BUILDER
+            .comment("Lifetime of the Gemini context cache in minutes; it is extended shortly before it expires")
+            .defineInRange("geminiContextCacheTtlMinutes", 60, 5, 1440);
+
+    // Recipe backend
+    private static final ForgeConfigSpec.ConfigValue<String> RECIPE_BACKEND = BUILDER
+            .comment("Backend used to generate recipes",
+                    "gemini: Google Gemini API (requires geminiApiKey)",
+                    "stub: local Gemini stub server replaying recorded responses, for offline load testing")
+            .defineInList("recipeBackend", "gemini", List.of("gemini", "stub"));
+
+    private static final ForgeConfigSpec.IntValue STUB_LATENCY_MILLIS = BUILDER
+            .comment("Mean response latency of the stub backend in milliseconds")
+            .defineInRange("stubLatencyMillis", 800, 0, 60000);
+
+    private static final ForgeConfigSpec.IntValue STUB_LATENCY_JITTER_MILLIS = BUILDER
+            .comment("Uniform jitter (+/-) added to the stub backend latency in milliseconds")
+            .defineInRange("stubLatencyJitterMillis", 400, 0, 60000);
+
+    private static final ForgeConfigSpec.DoubleValue STUB_RATE_LIMIT_RATE = BUILDER
+            .comment("Fraction of stub backend requests answered with HTTP 429")
+            .defineInRange("stubRateLimitRate", 0.0, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.DoubleValue STUB_SERVER_ERROR_RATE = BUILDER
+            .comment("Fraction of stub backend requests answered with HTTP 503")
+            .defineInRange("stubServerErrorRate", 0.0, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.LongValue STUB_SEED = BUILDER
+            .comment("Random seed for the stub backend latency and error sequence")
+            .defineInRange("stubSeed", 42L, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    // Recipe backend resilience
+    private static final ForgeConfigSpec.IntValue BACKEND_MAX_ATTEMPTS = BUILDER
+            .comment("Maximum attempts per recipe generation call, including the first",
+                    "Only rate limiting (429), server errors (5xx), timeouts and connection failures are retried")
+            .defineInRange("backendMaxAttempts", 3, 1, 10);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_RETRY_BASE_DELAY_MILLIS = BUILDER
+            .comment("Backoff window before the first retry in milliseconds; doubles with every retry (full jitter)")
+            .defineInRange("backendRetryBaseDelayMillis", 500, 10, 60000);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_RETRY_MAX_DELAY_MILLIS = BUILDER
+            .comment("Maximum backoff in milliseconds",
+                    "A Retry-After longer than this ends the retries instead of holding a generation slot")
+            .defineInRange("backendRetryMaxDelayMillis", 8000, 10, 300000);
+
+    private static final ForgeConfigSpec.BooleanValue BACKEND_HEDGING = BUILDER
+            .comment("Send a second identical request when a call runs past the p95 latency of recent calls",
+                    "The first response wins; trades extra API usage for lower tail latency")
+            .define("backendHedging", false);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_HEDGE_MIN_DELAY_MILLIS = BUILDER
+            .comment("Never send a hedged request earlier than this many milliseconds after the first one")
+            .defineInRange("backendHedgeMinDelayMillis", 2000, 0, 300000);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_CIRCUIT_FAILURE_THRESHOLD = BUILDER
+            .comment("Consecutive failed calls after which generation fails fast (circuit open)")
+            .defineInRange("backendCircuitFailureThreshold", 5, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_CIRCUIT_OPEN_SECONDS = BUILDER
+            .comment("Seconds the circuit stays open before a single probe call is allowed")
+            .defineInRange("backendCircuitOpenSeconds", 30, 1, 3600);
+
+    // Recipe backend concurrency
+    private static final ForgeConfigSpec.BooleanValue BACKEND_ADAPTIVE_CONCURRENCY = BUILDER
+            .comment("Adapt the number of concurrent backend calls to observed latency and 429/503 responses",
+                    "The limit grows while latency stays flat and is cut on overload; calls over it wait their turn")
+            .define("backendAdaptiveConcurrency", true);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_CONCURRENCY_INITIAL = BUILDER
+            .comment("Concurrent backend calls allowed at startup, before any latency is observed")
+            .defineInRange("backendConcurrencyInitial", 2, 1, 256);
+
+    private static final ForgeConfigSpec.IntValue BACKEND_CONCURRENCY_MAX = BUILDER
+            .comment("Upper bound of the adaptive concurrency limit",
+                    "Calls are also bounded by recipeGenerationThreads; raise it to let the limit grow")
+            .defineInRange("backendConcurrencyMax", 16, 1, 256);
+
+    // Recipe request rate limiting
+    private static final ForgeConfigSpec.IntValue REQUEST_LIMIT_PLAYER_BURST = BUILDER
+            .comment("Recipe generation requests a player may send in a burst")
+            .defineInRange("requestLimitPlayerBurst", 3, 1, 1000);
+
+    private static final ForgeConfigSpec.DoubleValue REQUEST_LIMIT_PLAYER_PER_MINUTE = BUILDER
+            .comment("Sustained recipe generation requests per minute allowed for each player")
+            .defineInRange("requestLimitPlayerPerMinute", 2.0, 0.01, 10000.0);
+
+    private static final ForgeConfigSpec.IntValue REQUEST_LIMIT_GLOBAL_BURST = BUILDER
+            .comment("Recipe generation requests all players together may send in a burst")
+            .defineInRange("requestLimitGlobalBurst", 20, 1, 100000);
+
+    private static final ForgeConfigSpec.DoubleValue REQUEST_LIMIT_GLOBAL_PER_MINUTE = BUILDER
+            .comment("Sustained recipe generation requests per minute allowed for the whole server",
+                    "Keep this below the API quota; requests over a limit are rejected with a retry hint")
+            .defineInRange("requestLimitGlobalPerMinute", 15.0, 0.01, 100000.0);
+
+    // Recipe generation executor
+    private static final ForgeConfigSpec.IntValue RECIPE_GENERATION_THREADS = BUILDER
+            .comment("Number of worker threads used for AI recipe generation",
+                    "Generation never runs on the server thread; this bounds concurrent API calls")
+            .defineInRange("recipeGenerationThreads", 2, 1, 16);
+
+    private static final ForgeConfigSpec.IntValue RECIPE_QUEUE_DEPTH = BUILDER
+            .comment("Maximum number of recipe generation requests waiting for a worker",
+                    "Requests beyond this limit are rejected immediately")
+            .defineInRange("recipeQueueDepth", 32, 1, 1024);
+
+    private static final ForgeConfigSpec.IntValue RECIPE_QUEUE_OWNER_DEPTH = BUILDER
+            .comment("Maximum number of queued recipe generation requests per player (or priority kitchen)")
+            .defineInRange("recipeQueueOwnerDepth", 8, 1, 1024);
+
+    // Recipe batching
+    private static final ForgeConfigSpec.IntValue RECIPE_BATCH_MAX_SIZE = BUILDER
+            .comment("Maximum number of queued dishes generated together in one model call (1 disables batching)",
+                    "Batching sends the ingredient catalog once per batch instead of once per dish")
+            .defineInRange("recipeBatchMaxSize", 1, 1, 8);
+
+    private static final ForgeConfigSpec.IntValue RECIPE_BATCH_LINGER_MILLIS = BUILDER
+            .comment("How long a worker waits for more queued dishes to fill a batch, in milliseconds",
+                    "Every batched request may be delayed by up to this much")
+            .defineInRange("recipeBatchLingerMillis", 50, 0, 1000);
+
+    // Recipe queue scheduling
+    private static final ForgeConfigSpec.IntValue SCHEDULER_OPERATOR_WEIGHT = BUILDER
+            .comment("Share of the generation workers given to each operator relative to a regular player (weight 1)",
+                    "Queued requests are served round robin across players, taking this many per turn")
+            .defineInRange("schedulerOperatorWeight", 2, 1, 100);
+
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> SCHEDULER_PRIORITY_KITCHENS = BUILDER
+            .comment("AI Kitchens (e.g. at events) whose requests share a priority queue, as \"<dimension> <x> <y> <z>\"",
+                    "Example: \"minecraft:overworld 100 64 -20\"")
+            .defineListAllowEmpty("schedulerPriorityKitchens", List.of(), Config::validateKitchenPos);
+
+    private static final ForgeConfigSpec.IntValue SCHEDULER_PRIORITY_KITCHEN_WEIGHT = BUILDER
+            .comment("Share of the generation workers given to each priority kitchen relative to a regular player")
+            .defineInRange("schedulerPriorityKitchenWeight", 4, 1, 100);
+
+    // Recipe cache
+    private static final ForgeConfigSpec.IntValue RECIPE_CACHE_MAX_ENTRIES = BUILDER
+            .comment("Maximum number of generated recipes kept in memory")
+            .defineInRange("recipeCacheMaxEntries", 512, 1, 100000);
+
+    private static final ForgeConfigSpec.LongValue RECIPE_CACHE_MAX_BYTES = BUILDER
+            .comment("Maximum total size (in bytes) of generated recipes kept in memory")
+            .defineInRange("recipeCacheMaxBytes", 4L * 1024 * 1024, 1024L, 1024L * 1024 * 1024);
+
+    private static final ForgeConfigSpec.IntValue RECIPE_CACHE_DISK_MAX_ENTRIES = BUILDER
+            .comment("Maximum number of generated recipes stored in the world save directory",
+                    "The oldest recipes are deleted first when a limit is exceeded")
+            .defineInRange("recipeCacheDiskMaxEntries", 4096, 1, 1000000);
+
+    private static final ForgeConfigSpec.LongValue RECIPE_CACHE_DISK_MAX_BYTES = BUILDER
+            .comment("Maximum total size (in bytes) of generated recipes stored in the world save directory")
+            .defineInRange("recipeCacheDiskMaxBytes", 32L * 1024 * 1024, 1024L, 16L * 1024 * 1024 * 1024);
+
+    private static final ForgeConfigSpec.IntValue RECIPE_CACHE_TTL_HOURS = BUILDER
+            .comment("How long (in hours) a generated recipe is reused before it is generated again",
+                    "Cached recipes are stored in the world save directory and survive restarts")
+            .defineInRange("recipeCacheTtlHours", 168, 1, 8760);
+
     static final ForgeConfigSpec SPEC = BUILDER.build();
 
     public static boolean logDirtBlock;
@@ -53,13 +253,98 @@ public class Config {
 
     // Gemini API Config values
     public static String geminiApiKey;
+    public static List<String> geminiApiKeys;
+    public static int geminiKeyFailureThreshold;
+    public static int geminiKeyCooldownSeconds;
     public static String geminiApiEndpoint;
+    public static List<String> geminiCascadeModels;
     public static int geminiTimeoutSeconds;
+    public static boolean geminiStreaming;
+    public static boolean geminiStructuredOutput;
+    public static boolean geminiContextCache;
+    public static int geminiContextCacheTtlMinutes;
+
+    // Recipe backend config values
+    public static String recipeBackend;
+    public static int stubLatencyMillis;
+    public static int stubLatencyJitterMillis;
+    public static double stubRateLimitRate;
+    public static double stubServerErrorRate;
+    public static long stubSeed;
+
+    // Recipe backend resilience config values
+    public static int backendMaxAttempts;
+    public static int backendRetryBaseDelayMillis;
+    public static int backendRetryMaxDelayMillis;
+    public static boolean backendHedging;
+    public static int backendHedgeMinDelayMillis;
+    public static int backendCircuitFailureThreshold;
+    public static int backendCircuitOpenSeconds;
+
+    // Recipe backend concurrency config values
+    public static boolean backendAdaptiveConcurrency;
+    public static int backendConcurrencyInitial;
+    public static int backendConcurrencyMax;
+
+    // Recipe request rate limiting config values
+    public static int requestLimitPlayerBurst;
+    public static double requestLimitPlayerPerMinute;
+    public static int requestLimitGlobalBurst;
+    public static double requestLimitGlobalPerMinute;
+
+    // Recipe generation executor config values
+    public static int recipeGenerationThreads;
+    public static int recipeQueueDepth;
+    public static int recipeQueueOwnerDepth;
+
+    // Recipe batching config values
+    public static int recipeBatchMaxSize;
+    public static int recipeBatchLingerMillis;
+
+    // Recipe queue scheduling config values
+    public static int schedulerOperatorWeight;
+    public static Set<GlobalPos> schedulerPriorityKitchens;
+    public static int schedulerPriorityKitchenWeight;
+
+    // Recipe cache config values
+    public static int recipeCacheMaxEntries;
+    public static long recipeCacheMaxBytes;
+    public static int recipeCacheDiskMaxEntries;
+    public static long recipeCacheDiskMaxBytes;
+    public static int recipeCacheTtlHours;
 
     private static boolean validateItemName(final Object obj) {
         return obj instanceof final String itemName && ForgeRegistries.ITEMS.containsKey(new ResourceLocation(itemName));
     }
 
+    private static boolean validateModelName(final Object obj) {
+        return obj instanceof final String model && model.matches("[A-Za-z0-9._-]+");
+    }
+
+    private static boolean validateKitchenPos(final Object obj) {
+        if (!(obj instanceof final String entry)) {
+            return false;
+        }
+        String[] parts = entry.trim().split("\\s+");
+        if (parts.length != 4 || ResourceLocation.tryParse(parts[0]) == null) {
+            return false;
+        }
+        try {
+            for (int i = 1; i < 4; i++) {
+                Integer.parseInt(parts[i]);
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static GlobalPos parseKitchenPos(String entry) {
+        String[] parts = entry.trim().split("\\s+");
+        return GlobalPos.of(ResourceKey.create(Registries.DIMENSION, new ResourceLocation(parts[0])),
+                new BlockPos(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3])));
+    }
+
     @SubscribeEvent
     static void onLoad(final ModConfigEvent event) {
         logDirtBlock = LOG_DIRT_BLOCK.get();
@@ -71,7 +356,64 @@ public class Config {
 
         // Load Gemini API config
         geminiApiKey = GEMINI_API_KEY.get();
+        geminiApiKeys = List.copyOf(GEMINI_API_KEYS.get());
+        geminiKeyFailureThreshold = GEMINI_KEY_FAILURE_THRESHOLD.get();
+        geminiKeyCooldownSeconds = GEMINI_KEY_COOLDOWN_SECONDS.get();
         geminiApiEndpoint = GEMINI_API_ENDPOINT.get();
+        geminiCascadeModels = List.copyOf(GEMINI_CASCADE_MODELS.get());
         geminiTimeoutSeconds = GEMINI_TIMEOUT_SECONDS.get();
+        geminiStreaming = GEMINI_STREAMING.get();
+        geminiStructuredOutput = GEMINI_STRUCTURED_OUTPUT.get();
+        geminiContextCache = GEMINI_CONTEXT_CACHE.get();
+        geminiContextCacheTtlMinutes = GEMINI_CONTEXT_CACHE_TTL_MINUTES.get();
+
+        // Load recipe backend config
+        recipeBackend = RECIPE_BACKEND.get();
+        stubLatencyMillis = STUB_LATENCY_MILLIS.get();
+        stubLatencyJitterMillis = STUB_LATENCY_JITTER_MILLIS.get();
+        stubRateLimitRate = STUB_RATE_LIMIT_RATE.get();
+        stubServerErrorRate = STUB_SERVER_ERROR_RATE.get();
+        stubSeed = STUB_SEED.get();
+
+        // Load recipe backend resilience config
+        backendMaxAttempts = BACKEND_MAX_ATTEMPTS.get();
+        backendRetryBaseDelayMillis = BACKEND_RETRY_BASE_DELAY_MILLIS.get();
+        backendRetryMaxDelayMillis = BACKEND_RETRY_MAX_DELAY_MILLIS.get();
+        backendHedging = BACKEND_HEDGING.get();
+        backendHedgeMinDelayMillis = BACKEND_HEDGE_MIN_DELAY_MILLIS.get();
+        backendCircuitFailureThreshold = BACKEND_CIRCUIT_FAILURE_THRESHOLD.get();
+        backendCircuitOpenSeconds = BACKEND_CIRCUIT_OPEN_SECONDS.get();
+
+        // Load recipe backend concurrency config
+        backendAdaptiveConcurrency = BACKEND_ADAPTIVE_CONCURRENCY.get();
+        backendConcurrencyInitial = BACKEND_CONCURRENCY_INITIAL.get();
+        backendConcurrencyMax = BACKEND_CONCURRENCY_MAX.get();
+
+        // Load recipe request rate limiting config
+        requestLimitPlayerBurst = REQUEST_LIMIT_PLAYER_BURST.get();
+        requestLimitPlayerPerMinute = REQUEST_LIMIT_PLAYER_PER_MINUTE.get();
+        requestLimitGlobalBurst = REQUEST_LIMIT_GLOBAL_BURST.get();
+        requestLimitGlobalPerMinute = REQUEST_LIMIT_GLOBAL_PER_MINUTE.get();
+
+        // Load recipe generation executor config
+        recipeGenerationThreads = RECIPE_GENERATION_THREADS.get();
+        recipeQueueDepth = RECIPE_QUEUE_DEPTH.get();
+        recipeQueueOwnerDepth = RECIPE_QUEUE_OWNER_DEPTH.get();
+
+        // Load recipe batching config
+        recipeBatchMaxSize = RECIPE_BATCH_MAX_SIZE.get();
+        recipeBatchLingerMillis = RECIPE_BATCH_LINGER_MILLIS.get();
+
+        // Load recipe queue scheduling config
+        schedulerOperatorWeight = SCHEDULER_OPERATOR_WEIGHT.get();
+        schedulerPriorityKitchens = SCHEDULER_PRIORITY_KITCHENS.get().stream().map(Config::parseKitchenPos).collect(Collectors.toSet());
+        schedulerPriorityKitchenWeight = SCHEDULER_PRIORITY_KITCHEN_WEIGHT.get();
+
+        // Load recipe cache config
+        recipeCacheMaxEntries = RECIPE_CACHE_MAX_ENTRIES.get();
+        recipeCacheMaxBytes = RECIPE_CACHE_MAX_BYTES.get();
+        recipeCacheDiskMaxEntries = RECIPE_CACHE_DISK_MAX_ENTRIES.get();
+        recipeCacheDiskMaxBytes = RECIPE_CACHE_DISK_MAX_BYTES.get();
+        recipeCacheTtlHours = RECIPE_CACHE_TTL_HOURS.get();
     }
 }
@@ -1,7 +1,15 @@
 package jp.houlab.mochidsuki.customcookingmod;
 
 import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerationService;
+import jp.houlab.mochidsuki.customcookingmod.ai.SharedHttpClient;
+import jp.houlab.mochidsuki.customcookingmod.client.ClientRecipeCatalog;
+import jp.houlab.mochidsuki.customcookingmod.command.ModCommands;
 import jp.houlab.mochidsuki.customcookingmod.network.ModNetworking;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeCatalogHavePacket;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeCatalogTracker;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeQueueTracker;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeRequestLimiter;
 import jp.houlab.mochidsuki.customcookingmod.registry.ModBlockEntities;
 import jp.houlab.mochidsuki.customcookingmod.registry.ModBlocks;
 import jp.houlab.mochidsuki.customcookingmod.registry.ModItems;
@@ -9,6 +17,7 @@ import jp.houlab.mochidsuki.customcookingmod.registry.ModMenuTypes;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.food.FoodProperties;
 import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.CreativeModeTab;
@@ -20,9 +29,13 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.material.MapColor;
 import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.BuildCreativeModeTabContentsEvent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -128,6 +141,31 @@ public class CustomcookingmodMain {
     public void onServerStarting(ServerStartingEvent event) {
         // Do something when the server starts
         LOGGER.info("HELLO from server starting");
+
+        // Start the shared HTTP client and the AI recipe generation worker pool (warms up the backend connection)
+        SharedHttpClient.start();
+        RecipeGenerationService.start(event.getServer());
+    }
+
+    @SubscribeEvent
+    public void onRegisterCommands(RegisterCommandsEvent event) {
+        ModCommands.register(event.getDispatcher());
+    }
+
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        RecipeGenerationService.stop();
+        SharedHttpClient.stop();
+        RecipeRequestLimiter.reset();
+        RecipeQueueTracker.reset();
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            RecipeCatalogTracker.forget(player);
+            RecipeRequestLimiter.prune();
+        }
     }
 
     // You can use EventBusSubscriber to automatically register all static methods in the class annotated with @SubscribeEvent
@@ -149,4 +187,19 @@ public class CustomcookingmodMain {
             });
         }
     }
+
+    @Mod.EventBusSubscriber(modid = MODID, bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+    public static class ClientForgeEvents {
+
+        @SubscribeEvent
+        public static void onLoggingIn(ClientPlayerNetworkEvent.LoggingIn event) {
+            // Tell the server which recipes we already hold so it only sends the missing ones
+            ModNetworking.sendToServer(new RecipeCatalogHavePacket(ClientRecipeCatalog.get().getHashes()));
+        }
+
+        @SubscribeEvent
+        public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+            ClientRecipeCatalog.get().save();
+        }
+    }
 }
@@ -0,0 +1,287 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive Concurrency Backend
+ * Limits how many calls are in flight to the backend, adjusting the limit by AIMD:
+ * the limit grows by about one per round trip while it is in use and latency stays near its baseline,
+ * and is cut multiplicatively on 429/503 responses or a latency spike.
+ * Calls over the limit wait (in order) for a free slot instead of failing.
+ */
+public class AdaptiveConcurrencyBackend implements RecipeBackend {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final double LATENCY_SPIKE_RATIO = 2.0;  // Latency above this multiple of the baseline counts as a spike
+    private static final double OVERLOAD_BACKOFF = 0.5;     // Limit multiplier on 429/503
+    private static final double LATENCY_BACKOFF = 0.8;      // Limit multiplier on a latency spike
+    private static final double BASELINE_ALPHA = 0.05;      // Weight of each success in the latency baseline
+
+    private final RecipeBackend delegate;
+    private final int minLimit;
+    private final int maxLimit;
+
+    // Guarded by this
+    private final ArrayDeque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private double limit;
+    private int inFlight = 0;
+    private double baselineMillis = -1;
+    private long lastDecreaseAt;
+    private boolean closed = false;
+
+    // Statistics
+    private final AtomicLong decreases = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+
+    /**
+     * Thrown (as the failure of the returned future) for calls made or still waiting when the backend is closed
+     * The backend was never reached and the call must not be retried
+     */
+    public static class BackendClosedException extends RecipeBackendException {
+        public BackendClosedException(String backend) {
+            super(backend + " backend closed", 0, -1);
+        }
+
+        @Override
+        public boolean isRetryable() {
+            return false;
+        }
+
+        @Override
+        public boolean isLocal() {
+            return true;
+        }
+    }
+
+    /**
+     * @param initialLimit Concurrent calls allowed before any latency has been observed
+     * @param minLimit     The limit never drops below this
+     * @param maxLimit     The limit never grows above this
+     */
+    public AdaptiveConcurrencyBackend(RecipeBackend delegate, int initialLimit, int minLimit, int maxLimit) {
+        this.delegate = delegate;
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.limit = Math.max(minLimit, Math.min(this.maxLimit, initialLimit));
+        this.lastDecreaseAt = System.nanoTime();
+    }
+
+    @Override
+    public CompletableFuture<String> generateRecipe(String prompt) {
+        return limited(() -> delegate.generateRecipe(prompt), 1);
+    }
+
+    @Override
+    public CompletableFuture<String> generateRecipeStreaming(String prompt, Consumer<String> onText) {
+        return limited(() -> delegate.generateRecipeStreaming(prompt, onText), 1);
+    }
+
+    @Override
+    public CompletableFuture<String> generateRecipeBatch(String prompt, int count) {
+        return limited(() -> delegate.generateRecipeBatch(prompt, count), count);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+
+    @Override
+    public void close() {
+        List<CompletableFuture<Void>> abandoned;
+        synchronized (this) {
+            closed = true;
+            abandoned = new ArrayList<>(waiting);
+            waiting.clear();
+        }
+        RecipeBackendException failure = new BackendClosedException(getName());
+        abandoned.forEach(slot -> slot.completeExceptionally(failure));
+        delegate.close();
+    }
+
+    @Override
+    public <T extends RecipeBackend> T unwrap(Class<T> type) {
+        return type.isInstance(this) ? type.cast(this) : delegate.unwrap(type);
+    }
+
+    /**
+     * Run the call once a slot is free, and feed its outcome back into the limit
+     * Cancelling the returned future gives up a waiting slot, or cancels the running call and frees its slot
+     *
+     * @param recipes Recipes the call generates; latency is compared to the baseline per recipe
+     */
+    private CompletableFuture<String> limited(Supplier<CompletableFuture<String>> call, int recipes) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<Void> slot = acquire();
+        AtomicReference<CompletableFuture<String>> running = new AtomicReference<>();
+        slot.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            long start = System.nanoTime();
+            if (result.isDone()) {
+                // Cancelled just as the slot was granted
+                release(start, recipes, new CancellationException());
+                return;
+            }
+            CompletableFuture<String> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            running.set(future);
+            future.whenComplete((text, throwable) -> {
+                release(start, recipes, throwable);
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(text);
+                }
+            });
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        result.whenComplete((text, throwable) -> {
+            if (!result.isCancelled()) {
+                return;
+            }
+            if (!abandon(slot)) {
+                CompletableFuture<String> future = running.get();
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Remove a slot that is still waiting
+     *
+     * @return Whether the slot was waiting; otherwise it has been granted (or refused) already
+     */
+    private synchronized boolean abandon(CompletableFuture<Void> slot) {
+        return waiting.remove(slot);
+    }
+
+    private synchronized CompletableFuture<Void> acquire() {
+        if (closed) {
+            return CompletableFuture.failedFuture(new BackendClosedException(getName()));
+        }
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        waiting.addLast(slot);
+        delayed.incrementAndGet();
+        return slot;
+    }
+
+    private void release(long start, int recipes, Throwable throwable) {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            boolean saturated = inFlight >= (int) limit || !waiting.isEmpty();
+            inFlight--;
+
+            if (throwable != null) {
+                RecipeBackendException failure = RecipeBackendException.of(throwable);
+                int status = failure.getStatusCode();
+                // A local failure (e.g. every key over its own quota) never reached the backend
+                if (!failure.isLocal() && (status == 429 || status == 503)) {
+                    decrease(start, OVERLOAD_BACKOFF, "HTTP " + status);
+                }
+            } else {
+                double latencyMillis = (System.nanoTime() - start) / 1_000_000.0 / Math.max(1, recipes);
+                if (baselineMillis < 0) {
+                    baselineMillis = latencyMillis;
+                } else if (latencyMillis > baselineMillis * LATENCY_SPIKE_RATIO) {
+                    decrease(start, LATENCY_BACKOFF, String.format("latency %.0f ms over baseline %.0f ms", latencyMillis, baselineMillis));
+                } else if (saturated) {
+                    // Additive increase: about +1 after a full limit's worth of successful calls
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+                baselineMillis += BASELINE_ALPHA * (latencyMillis - baselineMillis);
+            }
+
+            while (!waiting.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                granted.add(waiting.pollFirst());
+            }
+        }
+        // Complete outside the lock; the waiting calls start on this thread
+        granted.forEach(slot -> slot.complete(null));
+    }
+
+    /**
+     * Multiplicative decrease, at most once per congestion event:
+     * calls that started before the previous cut saw the same congestion and are ignored
+     * Must hold the lock
+     */
+    private void decrease(long start, double factor, String reason) {
+        if (start - lastDecreaseAt < 0) {
+            return;
+        }
+        double previous = limit;
+        limit = Math.max(minLimit, limit * factor);
+        lastDecreaseAt = System.nanoTime();
+        decreases.incrementAndGet();
+        LOGGER.info("{} backend concurrency limit {} -> {} ({})", getName(), (int) previous, (int) limit, reason);
+    }
+
+    /**
+     * Current limit on concurrent calls
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /**
+     * Number of calls waiting for a free slot
+     */
+    public synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Smoothed latency of successful calls in milliseconds, or -1 before the first one
+     */
+    public synchronized long getBaselineLatencyMillis() {
+        return (long) baselineMillis;
+    }
+
+    public long getDecreaseCount() {
+        return decreases.get();
+    }
+
+    /**
+     * Number of calls that had to wait for a slot
+     */
+    public long getDelayedCount() {
+        return delayed.get();
+    }
+}
@@ -0,0 +1,110 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit Breaker
+ * Opens after a number of consecutive failures so calls fail fast while the backend is unhealthy.
+ * After the open period one probe call is let through (half-open); its outcome closes or reopens the circuit.
+ */
+public class CircuitBreaker {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+
+    // Statistics
+    private final AtomicLong opens = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param name             Name used in log messages
+     * @param failureThreshold Consecutive failures that open the circuit
+     * @param openMillis       How long the circuit stays open before a probe is allowed
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Ask permission for one call
+     * Every permitted call must be followed by onSuccess, onFailure or onIgnored
+     *
+     * @return false if the call must fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            LOGGER.info("Circuit {} closed", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            opens.incrementAndGet();
+            LOGGER.warn("Circuit {} opened after {} consecutive failures; failing fast for {} ms",
+                    name, consecutiveFailures, openMillis);
+        }
+    }
+
+    /**
+     * End a permitted call that never reached the backend; neither a success nor a failure
+     */
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getOpenCount() {
+        return opens.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
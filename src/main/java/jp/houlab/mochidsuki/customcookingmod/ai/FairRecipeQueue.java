@@ -0,0 +1,401 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fair Recipe Queue
+ * Work queue for the generation worker pool with one lane per owner (a player, or an event kitchen).
+ * Lanes are served by weighted round robin: each turn a lane may dequeue as many jobs as its weight,
+ * so one owner queuing many dishes delays others by at most one turn per lane instead of its whole backlog.
+ * Every job costs the same (one generation), which makes deficit round robin reduce to this.
+ */
+public class FairRecipeQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+    private static final int WAIT_WINDOW = 256;
+    private static final int MIN_WAIT_SAMPLES = 10;
+
+    private final int capacity;
+    private final int laneCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // Guarded by lock
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final ArrayDeque<Lane> active = new ArrayDeque<>();  // Lanes with queued jobs, in service order
+    private int count = 0;
+
+    // Statistics
+    private final LatencyWindow waits = new LatencyWindow(WAIT_WINDOW);
+    private final AtomicLong dequeued = new AtomicLong();
+
+    /**
+     * Owner of queued jobs, and its share of the workers relative to other owners
+     */
+    public static class Owner {
+        public static final Owner SERVER = new Owner("server", 1);
+
+        final String id;
+        final int weight;
+
+        public Owner(String id, int weight) {
+            this.id = id;
+            this.weight = Math.max(1, weight);
+        }
+    }
+
+    /**
+     * A queued task tagged with its owner and the key used to report its queue position
+     */
+    static class Job implements Runnable {
+        final Owner owner;
+        final Object key;
+        final Runnable task;
+        final boolean retry;  // Already admitted once: ignores the capacity limits and is never batched
+        final long enqueuedAt = System.nanoTime();
+
+        Job(Owner owner, Object key, Runnable task) {
+            this(owner, key, task, false);
+        }
+
+        Job(Owner owner, Object key, Runnable task, boolean retry) {
+            this.owner = owner;
+            this.key = key;
+            this.task = task;
+            this.retry = retry;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private static class Lane {
+        final String id;
+        final ArrayDeque<Job> jobs = new ArrayDeque<>();
+        int weight;
+        int credit = 0;  // Jobs this lane may still dequeue in its current turn
+
+        Lane(String id, int weight) {
+            this.id = id;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * @param capacity     Maximum queued jobs in total
+     * @param laneCapacity Maximum queued jobs per owner
+     */
+    public FairRecipeQueue(int capacity, int laneCapacity) {
+        this.capacity = capacity;
+        this.laneCapacity = laneCapacity;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        Job job = runnable instanceof Job tagged ? tagged : new Job(Owner.SERVER, null, runnable);
+        lock.lock();
+        try {
+            if (count >= capacity && !job.retry) {
+                return false;
+            }
+            Lane lane = lanes.computeIfAbsent(job.owner.id, id -> new Lane(id, job.owner.weight));
+            if (lane.jobs.size() >= laneCapacity && !job.retry) {
+                return false;
+            }
+            lane.weight = job.owner.weight;
+            if (lane.jobs.isEmpty()) {
+                active.addLast(lane);
+            }
+            lane.jobs.addLast(job);
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Dequeue the next job in weighted round robin order
+     * Must hold the lock and have count > 0
+     */
+    private Job dequeue() {
+        Lane lane = active.peekFirst();
+        if (lane.credit == 0) {
+            lane.credit = lane.weight;
+        }
+        Job job = lane.jobs.pollFirst();
+        lane.credit--;
+        count--;
+        if (lane.jobs.isEmpty()) {
+            active.pollFirst();
+            lanes.remove(lane.id);
+        } else if (lane.credit == 0) {
+            active.addLast(active.pollFirst());
+        }
+        waits.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - job.enqueuedAt));
+        dequeued.incrementAndGet();
+        return job;
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            return count == 0 ? null : active.peekFirst().jobs.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable runnable) {
+        // Never blocks: the worker pool only offers, and a full queue rejects
+        if (!offer(runnable)) {
+            throw new IllegalStateException("Recipe queue full");
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+        return offer(runnable);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            for (Lane lane : active) {
+                if (lane.jobs.remove(o)) {
+                    count--;
+                    if (lane.jobs.isEmpty()) {
+                        active.remove(lane);
+                        lanes.remove(lane.id);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> collection, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (count > 0 && drained < maxElements) {
+                collection.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Dequeue up to maxJobs jobs for a batch, waiting at most lingerNanos for more to arrive
+     * Jobs come out in the usual weighted round robin order; a retry job next in line ends the batch.
+     * If the thread is interrupted while waiting, the jobs dequeued so far are returned and the interrupt flag is set again
+     */
+    public List<Runnable> pollBatch(int maxJobs, long lingerNanos) {
+        List<Runnable> batch = new ArrayList<>(Math.max(0, maxJobs));
+        long nanos = lingerNanos;
+        lock.lock();
+        try {
+            while (batch.size() < maxJobs) {
+                if (count > 0) {
+                    if (active.peekFirst().jobs.peekFirst().retry) {
+                        break;
+                    }
+                    batch.add(dequeue());
+                    continue;
+                }
+                if (nanos <= 0) {
+                    break;
+                }
+                try {
+                    nanos = notEmpty.awaitNanos(nanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshot of the queued jobs in service order (removal through the iterator is not supported)
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            List<Runnable> order = new ArrayList<>(count);
+            simulate((job, position) -> order.add(job));
+            return Collections.unmodifiableList(order).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 1-based queue position of every queued job by its key
+     * Jobs that already started are not included
+     */
+    public Map<Object, Integer> positions() {
+        lock.lock();
+        try {
+            Map<Object, Integer> positions = new HashMap<>();
+            simulate((job, position) -> {
+                if (job.key != null) {
+                    positions.putIfAbsent(job.key, position);
+                }
+            });
+            return positions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private interface JobVisitor {
+        void visit(Job job, int position);
+    }
+
+    /**
+     * Visit queued jobs in the order dequeue would return them, without changing the queue
+     * Must hold the lock
+     */
+    private void simulate(JobVisitor visitor) {
+        ArrayDeque<Iterator<Job>> order = new ArrayDeque<>(active.size());
+        Map<Iterator<Job>, int[]> credits = new HashMap<>();
+        for (Lane lane : active) {
+            Iterator<Job> jobs = lane.jobs.iterator();
+            order.addLast(jobs);
+            credits.put(jobs, new int[]{lane.credit, lane.weight});
+        }
+        int position = 0;
+        while (!order.isEmpty()) {
+            Iterator<Job> jobs = order.peekFirst();
+            int[] credit = credits.get(jobs);
+            if (credit[0] == 0) {
+                credit[0] = credit[1];
+            }
+            visitor.visit(jobs.next(), ++position);
+            credit[0]--;
+            if (!jobs.hasNext()) {
+                order.pollFirst();
+            } else if (credit[0] == 0) {
+                order.addLast(order.pollFirst());
+            }
+        }
+    }
+
+    /**
+     * Number of owners with queued jobs
+     */
+    public int getLaneCount() {
+        lock.lock();
+        try {
+            return active.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDequeuedCount() {
+        return dequeued.get();
+    }
+
+    /**
+     * Percentile (0-1) of recent queue wait times in milliseconds, or -1 with too few samples
+     */
+    public long getWaitPercentile(double percentile) {
+        return waits.percentile(percentile, MIN_WAIT_SAMPLES);
+    }
+}
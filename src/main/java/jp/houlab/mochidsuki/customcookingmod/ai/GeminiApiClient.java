@@ -5,6 +5,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
 import jp.houlab.mochidsuki.customcookingmod.Config;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -13,21 +14,131 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Google Gemini API Client
  * Handles communication with Google's Gemini 1.5 Pro API
  */
-public class GeminiApiClient {
+public class GeminiApiClient implements RecipeBackend {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Gson GSON = new Gson();
+    private static final int OUTPUT_TOKENS_PER_RECIPE = 2048;
+    private static final int MAX_OUTPUT_TOKENS = 8192;
     private final HttpClient httpClient;
+    private final GeminiKeyPool keys;
 
-    public GeminiApiClient() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+    /**
+     * @param endpoint generateContent endpoint URL of the model
+     * @param apiKey   API key sent with every request
+     */
+    public GeminiApiClient(String endpoint, String apiKey) {
+        this(endpoint, apiKey, false);
+    }
+
+    /**
+     * @param endpoint       generateContent endpoint URL of the model
+     * @param apiKey         API key sent with every request
+     * @param contextCaching Send the static prompt prefix through the cachedContents API
+     */
+    public GeminiApiClient(String endpoint, String apiKey, boolean contextCaching) {
+        this(GeminiKeyPool.single(endpoint, apiKey), contextCaching);
+    }
+
+    /**
+     * @param keys           API keys (and their model endpoints) requests are spread across
+     * @param contextCaching Send the static prompt prefix through the cachedContents API (one cache per key)
+     */
+    public GeminiApiClient(GeminiKeyPool keys, boolean contextCaching) {
+        this.httpClient = SharedHttpClient.get();
+        this.keys = keys;
+        if (contextCaching) {
+            long ttlMillis = TimeUnit.MINUTES.toMillis(Config.geminiContextCacheTtlMinutes);
+            keys.attachContextCaches(key -> new GeminiContextCache(httpClient, key.endpoint, key.apiKey, ttlMillis));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "gemini";
+    }
+
+    @Override
+    public void close() {
+        getContextCaches().forEach(GeminiContextCache::close);
+    }
+
+    /**
+     * Open a connection to each key's API host with a lightweight model lookup,
+     * so the first generation does not pay for the TCP+TLS handshake (this also checks each key)
+     */
+    @Override
+    public void warmUp() {
+        keys.getKeys().forEach(this::warmUp);
+    }
+
+    private void warmUp(GeminiKeyPool.Key key) {
+        int colon = key.endpoint.lastIndexOf(':');
+        String modelUrl = colon > key.endpoint.lastIndexOf('/') ? key.endpoint.substring(0, colon) : key.endpoint;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(modelUrl + "?key=" + key.apiKey))
+                .timeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+                .GET()
                 .build();
+
+        long start = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, throwable) -> {
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (throwable != null) {
+                        LOGGER.warn("Failed to warm up connection to {} after {} ms: {}", getName(), millis, throwable.toString());
+                    } else if (response.statusCode() != 200) {
+                        LOGGER.warn("{} warm-up with key {} returned {} after {} ms (check the API key and endpoint)",
+                                getName(), key.getLabel(), response.statusCode(), millis);
+                    } else {
+                        LOGGER.info("{} connection warmed up in {} ms ({})", getName(), millis, response.version());
+                    }
+                });
+    }
+
+    /**
+     * Context caches used for the static prompt prefix, one per key (empty when context caching is disabled)
+     */
+    public List<GeminiContextCache> getContextCaches() {
+        List<GeminiContextCache> caches = new ArrayList<>();
+        for (GeminiKeyPool.Key key : keys.getKeys()) {
+            if (key.contextCache != null) {
+                caches.add(key.contextCache);
+            }
+        }
+        return caches;
+    }
+
+    public GeminiKeyPool getKeyPool() {
+        return keys;
+    }
+
+    /**
+     * Pick the key for a request
+     * Completes exceptionally when no key is configured or every key is out of rotation or over quota
+     */
+    private CompletableFuture<GeminiKeyPool.Key> selectKey() {
+        if (keys.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Gemini API key not configured"));
+        }
+        try {
+            return CompletableFuture.completedFuture(keys.select());
+        } catch (RecipeBackendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     /**
@@ -36,54 +147,254 @@ public class GeminiApiClient {
      * @param prompt The prompt to send to the AI
      * @return CompletableFuture with the AI's response
      */
+    @Override
     public CompletableFuture<String> generateRecipe(String prompt) {
-        if (Config.geminiApiKey == null || Config.geminiApiKey.isEmpty()) {
-            CompletableFuture<String> future = new CompletableFuture<>();
-            future.completeExceptionally(new IllegalStateException("Gemini API key not configured"));
-            return future;
-        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        forward(selectKey().thenCompose(key -> lookupContextCache(key, prompt)
+                .thenCompose(cache -> sendGenerate(key, prompt, cache, 0, result))), result);
+        return result;
+    }
+
+    /**
+     * Send a prompt asking for several recipes; with structured output the response is constrained
+     * to a JSON array of exactly count recipes
+     */
+    @Override
+    public CompletableFuture<String> generateRecipeBatch(String prompt, int count) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        forward(selectKey().thenCompose(key -> lookupContextCache(key, prompt)
+                .thenCompose(cache -> sendGenerate(key, prompt, cache, count, result))), result);
+        return result;
+    }
 
+    /**
+     * @param batchSize Number of recipes in a batched request, or 0 for a single recipe
+     * @param caller    Future returned to the caller; cancelling it aborts the HTTP exchange
+     */
+    private CompletableFuture<String> sendGenerate(GeminiKeyPool.Key key, String prompt, @Nullable GeminiContextCache.Entry cache,
+                                                   int batchSize, CompletableFuture<String> caller) {
+        if (caller.isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException());
+        }
         // Build request body
-        JsonObject requestBody = buildRequestBody(prompt);
+        JsonObject requestBody = buildRequestBody(prompt, cache, batchSize);
         String requestBodyString = GSON.toJson(requestBody);
 
         // Build request
-        String url = Config.geminiApiEndpoint + "?key=" + Config.geminiApiKey;
+        String url = key.endpoint + "?key=" + key.apiKey;
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
                 .POST(HttpRequest.BodyPublishers.ofString(requestBodyString))
                 .build();
 
         // Send request asynchronously
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
+        CompletableFuture<HttpResponse<String>> sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        abortOnCancel(caller, sent);
+        return withDeadline(sent)
+                .thenCompose(response -> {
                     if (response.statusCode() != 200) {
-                        LOGGER.error("Gemini API returned error code: {}", response.statusCode());
-                        LOGGER.error("Response body: {}", response.body());
-                        throw new RuntimeException("Gemini API error: " + response.statusCode());
+                        if (cache != null && isCacheRejected(response.statusCode())) {
+                            key.contextCache.invalidate(cache.name);
+                            return sendGenerate(key, prompt, null, batchSize, caller);
+                        }
+                        keys.report(key, response.statusCode());
+                        LOGGER.warn("Gemini API returned error code: {}", response.statusCode());
+                        LOGGER.debug("Response body: {}", response.body());
+                        throw RecipeBackendException.fromResponse("Gemini", response.statusCode(), response.headers());
                     }
-                    return parseResponse(response.body());
-                })
-                .exceptionally(throwable -> {
-                    LOGGER.error("Failed to call Gemini API", throwable);
-                    return null;
+                    keys.report(key, response.statusCode());
+                    return CompletableFuture.completedFuture(parseResponse(response.body()));
                 });
     }
 
+    /**
+     * Send a prompt to the streaming endpoint (streamGenerateContent, server-sent events)
+     * Each text fragment is passed to onText as soon as it arrives
+     *
+     * @param prompt The prompt to send to the AI
+     * @param onText Receives each generated text fragment in order
+     * @return CompletableFuture with the full concatenated response
+     */
+    @Override
+    public CompletableFuture<String> generateRecipeStreaming(String prompt, Consumer<String> onText) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        forward(selectKey().thenCompose(key -> lookupContextCache(key, prompt)
+                .thenCompose(cache -> sendStreaming(key, prompt, cache, onText, result))), result);
+        return result;
+    }
+
+    private CompletableFuture<String> sendStreaming(GeminiKeyPool.Key key, String prompt, @Nullable GeminiContextCache.Entry cache,
+                                                    Consumer<String> onText, CompletableFuture<String> caller) {
+        if (caller.isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException());
+        }
+        String requestBodyString = GSON.toJson(buildRequestBody(prompt, cache, 0));
+
+        String url = toStreamingEndpoint(key.endpoint) + "?alt=sse&key=" + key.apiKey;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+                .POST(HttpRequest.BodyPublishers.ofString(requestBodyString))
+                .build();
+
+        // The request timeout only covers the response headers; the deadline also bounds the streamed body
+        CompletableFuture<HttpResponse<Stream<String>>> sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        abortOnCancel(caller, sent);
+        CompletableFuture<String> result = sent
+                .thenCompose(response -> {
+                    try (Stream<String> lines = response.body()) {
+                        if (response.statusCode() != 200) {
+                            String body = lines.collect(Collectors.joining("\n"));
+                            if (cache != null && isCacheRejected(response.statusCode())) {
+                                key.contextCache.invalidate(cache.name);
+                                return sendStreaming(key, prompt, null, onText, caller);
+                            }
+                            keys.report(key, response.statusCode());
+                            LOGGER.warn("Gemini API returned error code: {}", response.statusCode());
+                            LOGGER.debug("Response body: {}", body);
+                            throw RecipeBackendException.fromResponse("Gemini", response.statusCode(), response.headers());
+                        }
+
+                        keys.report(key, response.statusCode());
+                        StringBuilder fullText = new StringBuilder();
+                        lines.forEach(line -> {
+                            if (!line.startsWith("data:")) {
+                                return; // Blank separators and SSE comments
+                            }
+                            String text = extractStreamedText(line.substring(5).trim());
+                            if (text != null && !text.isEmpty()) {
+                                fullText.append(text);
+                                onText.accept(text);
+                            }
+                        });
+                        LOGGER.info("Gemini API streamed response received successfully");
+                        return CompletableFuture.completedFuture(fullText.toString());
+                    }
+                });
+        return withDeadline(result).whenComplete((text, throwable) -> {
+            if (throwable instanceof TimeoutException) {
+                // Unblock the thread still reading the stalled stream
+                LOGGER.warn("Gemini API stream did not finish within {}s", Config.geminiTimeoutSeconds);
+                sent.thenAccept(response -> response.body().close());
+            }
+        });
+    }
+
+    /**
+     * Complete the caller's future with the outcome of the call chain
+     */
+    private static void forward(CompletableFuture<String> chain, CompletableFuture<String> caller) {
+        chain.whenComplete((text, throwable) -> {
+            if (throwable != null) {
+                caller.completeExceptionally(throwable);
+            } else {
+                caller.complete(text);
+            }
+        });
+    }
+
+    /**
+     * Abort the HTTP exchange when the caller cancels (e.g. a hedged request that lost the race)
+     * The stream of a response that is already being read is closed as well
+     */
+    private static void abortOnCancel(CompletableFuture<String> caller, CompletableFuture<? extends HttpResponse<?>> exchange) {
+        caller.whenComplete((text, throwable) -> {
+            if (caller.isCancelled()) {
+                exchange.cancel(true);
+                exchange.thenAccept(response -> {
+                    if (response.body() instanceof Stream<?> lines) {
+                        lines.close();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Fail a call that has not finished within the configured timeout, including reading the response body
+     */
+    private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future) {
+        return future.orTimeout(Config.geminiTimeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<GeminiContextCache.Entry> lookupContextCache(GeminiKeyPool.Key key, String prompt) {
+        return key.contextCache != null ? key.contextCache.lookup(prompt) : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * A cached content that expired or was deleted on the API side is reported as 400/403/404
+     * Such requests are resent once with the full prompt inline
+     */
+    private static boolean isCacheRejected(int statusCode) {
+        return statusCode == 400 || statusCode == 403 || statusCode == 404;
+    }
+
+    /**
+     * Derive the streamGenerateContent endpoint from the configured generateContent endpoint
+     */
+    private static String toStreamingEndpoint(String endpoint) {
+        if (endpoint.endsWith(":generateContent")) {
+            return endpoint.substring(0, endpoint.length() - ":generateContent".length()) + ":streamGenerateContent";
+        }
+        return endpoint;
+    }
+
+    /**
+     * Extract the text fragment from one streamed GenerateContentResponse chunk
+     * Chunks without text (e.g. the final usage metadata) return null
+     */
+    private String extractStreamedText(String eventData) {
+        try {
+            JsonObject chunk = GSON.fromJson(eventData, JsonObject.class);
+            if (chunk == null || !chunk.has("candidates")) {
+                return null;
+            }
+            JsonArray candidates = chunk.getAsJsonArray("candidates");
+            if (candidates.size() == 0) {
+                return null;
+            }
+            JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
+            if (content == null || !content.has("parts")) {
+                return null;
+            }
+
+            StringBuilder text = new StringBuilder();
+            for (var part : content.getAsJsonArray("parts")) {
+                JsonObject partObject = part.getAsJsonObject();
+                if (partObject.has("text")) {
+                    text.append(partObject.get("text").getAsString());
+                }
+            }
+            return text.toString();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to parse streamed Gemini chunk: {}", eventData, e);
+            return null;
+        }
+    }
+
     /**
      * Build JSON request body for Gemini API
+     * With a context cache, the cached prefix is referenced by name and only the rest of the prompt is sent
+     * A batched request gets an array schema and an output budget per recipe
      */
-    private JsonObject buildRequestBody(String prompt) {
+    private JsonObject buildRequestBody(String prompt, @Nullable GeminiContextCache.Entry cache, int batchSize) {
         JsonObject requestBody = new JsonObject();
+        if (cache != null) {
+            requestBody.addProperty("cachedContent", cache.name);
+        }
 
         // Create contents array
         JsonArray contents = new JsonArray();
         JsonObject content = new JsonObject();
+        content.addProperty("role", "user");
 
         JsonArray parts = new JsonArray();
         JsonObject part = new JsonObject();
-        part.addProperty("text", prompt);
+        part.addProperty("text", cache != null ? prompt.substring(cache.prefix.length()) : prompt);
         parts.add(part);
 
         content.add("parts", parts);
@@ -94,7 +405,11 @@ public class GeminiApiClient {
         // Add generation config
         JsonObject generationConfig = new JsonObject();
         generationConfig.addProperty("temperature", 0.7);
-        generationConfig.addProperty("maxOutputTokens", 2048);
+        generationConfig.addProperty("maxOutputTokens", Math.min(MAX_OUTPUT_TOKENS, OUTPUT_TOKENS_PER_RECIPE * Math.max(1, batchSize)));
+        if (Config.geminiStructuredOutput) {
+            generationConfig.addProperty("responseMimeType", "application/json");
+            generationConfig.add("responseSchema", batchSize > 0 ? RecipeSchema.batchResponseSchema(batchSize) : RecipeSchema.responseSchema());
+        }
         requestBody.add("generationConfig", generationConfig);
 
         return requestBody;
@@ -136,16 +451,4 @@ public class GeminiApiClient {
             return null;
         }
     }
-
-    /**
-     * Synchronous version of generateRecipe (blocks until response is received)
-     */
-    public String generateRecipeSync(String prompt) {
-        try {
-            return generateRecipe(prompt).get();
-        } catch (Exception e) {
-            LOGGER.error("Failed to generate recipe", e);
-            return null;
-        }
-    }
 }
@@ -0,0 +1,288 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.Config;
+import org.slf4j.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gemini Context Cache
+ * Registers the static prompt prefix (PromptTemplate) through the cachedContents API, so generation
+ * requests only carry the dish name and category and reference the cache by name.
+ * The cache is created once per server session, extended before its TTL runs out and recreated
+ * when the template changes. If the API refuses to cache (for example because the prefix is below
+ * the model's minimum cacheable size), prompts are sent inline until a retry delay has passed.
+ */
+public class GeminiContextCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // Longest a generation waits for a creation in progress before sending its prompt inline
+    private static final long PENDING_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final HttpClient httpClient;
+    private final String apiBase;   // e.g. https://generativelanguage.googleapis.com/v1beta
+    private final String model;     // e.g. models/gemini-2.0-flash-exp
+    private final String apiKey;
+    private final long ttlMillis;
+
+    // Current cache entry and the creation/refresh in progress; guarded by this
+    private Entry entry;
+    private CompletableFuture<Entry> pending;
+    private long disabledUntil;
+
+    // Statistics
+    private final AtomicLong creations = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong cachedRequests = new AtomicLong();
+    private final AtomicLong inlineRequests = new AtomicLong();
+
+    /**
+     * Registered cache for one prefix
+     */
+    static class Entry {
+        final String prefix;
+        final String name;       // cachedContents/{id}
+        final long expiresAt;    // Local estimate, taken before the request was sent
+
+        Entry(String prefix, String name, long expiresAt) {
+            this.prefix = prefix;
+            this.name = name;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @param httpClient Client shared with the generation requests
+     * @param endpoint   generateContent endpoint URL of the model
+     * @param apiKey     API key sent with every request
+     * @param ttlMillis  Lifetime requested for the cache
+     */
+    public GeminiContextCache(HttpClient httpClient, String endpoint, String apiKey, long ttlMillis) {
+        this.httpClient = httpClient;
+        int models = endpoint.lastIndexOf("/models/");
+        this.apiBase = models < 0 ? endpoint : endpoint.substring(0, models);
+        this.model = "models/" + RecipeBackends.modelName(endpoint);
+        this.apiKey = apiKey;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Resolve the cache to use for a prompt
+     * Completes with the cache entry, or null when the prompt has to be sent inline
+     * (the prompt does not start with the current template prefix, or caching is unavailable)
+     */
+    CompletableFuture<Entry> lookup(String prompt) {
+        String prefix = PromptTemplate.get().getPrefix();
+        if (!prompt.startsWith(prefix) || prompt.length() == prefix.length()) {
+            inlineRequests.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Entry> future;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry current = entry;
+            if (current != null && current.prefix.equals(prefix) && now < current.expiresAt) {
+                // Still valid: extend it in the background when it is about to expire
+                if (now >= current.expiresAt - refreshMargin() && pending == null && now >= disabledUntil) {
+                    start(refresh(current));
+                }
+                cachedRequests.incrementAndGet();
+                return CompletableFuture.completedFuture(current);
+            }
+            if (now < disabledUntil) {
+                inlineRequests.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            }
+            if (pending == null) {
+                start(create(prefix, current));
+            }
+            future = pending;
+        }
+
+        // Wait on a copy so the timeout does not complete the shared creation for everyone
+        return future.copy().completeOnTimeout(null, PENDING_WAIT_MILLIS, TimeUnit.MILLISECONDS).thenApply(result -> {
+            if (result != null && result.prefix.equals(prefix)) {
+                cachedRequests.incrementAndGet();
+                return result;
+            }
+            inlineRequests.incrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * Forget the cache entry after the API reported it as missing or expired
+     */
+    public synchronized void invalidate(String name) {
+        if (entry != null && entry.name.equals(name)) {
+            LOGGER.info("Gemini context cache {} is no longer valid", name);
+            entry = null;
+        }
+    }
+
+    /**
+     * Delete the cache entry (called when the server stops)
+     * Waits briefly so the entry does not outlive the session
+     */
+    public void close() {
+        Entry current;
+        synchronized (this) {
+            current = entry;
+            entry = null;
+        }
+        if (current != null) {
+            try {
+                delete(current.name).get(2, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                LOGGER.debug("Gemini context cache {} was not deleted before shutdown", current.name);
+            }
+        }
+    }
+
+    public long getCreations() {
+        return creations.get();
+    }
+
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    public long getCachedRequests() {
+        return cachedRequests.get();
+    }
+
+    public long getInlineRequests() {
+        return inlineRequests.get();
+    }
+
+    /**
+     * Track a creation or refresh; caller holds the lock
+     */
+    private void start(CompletableFuture<Entry> future) {
+        pending = future;
+        future.whenComplete((result, throwable) -> onSettled(future, result));
+    }
+
+    private synchronized void onSettled(CompletableFuture<Entry> settled, Entry result) {
+        if (pending == settled) {
+            pending = null;
+        }
+        if (result != null) {
+            entry = result;
+        } else {
+            disabledUntil = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+        }
+    }
+
+    /**
+     * Extend the entry when less than a fifth of its lifetime (at most one minute) remains
+     */
+    private long refreshMargin() {
+        return Math.min(ttlMillis / 5, TimeUnit.MINUTES.toMillis(1));
+    }
+
+    private CompletableFuture<Entry> create(String prefix, Entry previous) {
+        JsonObject part = new JsonObject();
+        part.addProperty("text", prefix);
+        JsonArray parts = new JsonArray();
+        parts.add(part);
+        JsonObject content = new JsonObject();
+        content.addProperty("role", "user");
+        content.add("parts", parts);
+        JsonArray contents = new JsonArray();
+        contents.add(content);
+
+        JsonObject body = new JsonObject();
+        body.addProperty("model", model);
+        body.add("contents", contents);
+        body.addProperty("ttl", ttlSeconds());
+
+        long requestedAt = System.currentTimeMillis();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiBase + "/cachedContents?key=" + apiKey))
+                .timeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(body)))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        LOGGER.warn("Gemini context cache could not be created ({}), sending prompts inline: {}",
+                                response.statusCode(), response.body());
+                        return (Entry) null;
+                    }
+                    String name = GSON.fromJson(response.body(), JsonObject.class).get("name").getAsString();
+                    creations.incrementAndGet();
+                    LOGGER.info("Created Gemini context cache {} (~{} tokens, ttl {})",
+                            name, PromptTemplate.estimateTokens(prefix), ttlSeconds());
+                    if (previous != null) {
+                        delete(previous.name);
+                    }
+                    return new Entry(prefix, name, requestedAt + ttlMillis);
+                })
+                .exceptionally(throwable -> {
+                    LOGGER.warn("Failed to create Gemini context cache", throwable);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Entry> refresh(Entry current) {
+        JsonObject body = new JsonObject();
+        body.addProperty("ttl", ttlSeconds());
+
+        long requestedAt = System.currentTimeMillis();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiBase + "/" + current.name + "?updateMask=ttl&key=" + apiKey))
+                .timeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(GSON.toJson(body)))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    if (response.statusCode() != 200) {
+                        // Expired or deleted in the meantime
+                        LOGGER.info("Gemini context cache {} could not be extended ({}), recreating", current.name, response.statusCode());
+                        return create(current.prefix, null);
+                    }
+                    refreshes.incrementAndGet();
+                    return CompletableFuture.completedFuture(new Entry(current.prefix, current.name, requestedAt + ttlMillis));
+                })
+                .exceptionally(throwable -> {
+                    LOGGER.warn("Failed to extend Gemini context cache {}", current.name, throwable);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<?> delete(String name) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiBase + "/" + name + "?key=" + apiKey))
+                .timeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+                .DELETE()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        LOGGER.debug("Failed to delete Gemini context cache {}", name, throwable);
+                    }
+                });
+    }
+
+    private String ttlSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(ttlMillis) + "s";
+    }
+}
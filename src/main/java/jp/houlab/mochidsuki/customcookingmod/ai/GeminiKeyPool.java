@@ -0,0 +1,313 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Gemini Key Pool
+ * API keys (and optionally their own API hosts) that one model's requests are spread across.
+ * Keys are picked by smooth weighted round robin among those in rotation and under their
+ * per-minute quota. A key answering 429 or 403 several times in a row is taken out of rotation
+ * for a cooldown and then reinstated automatically.
+ */
+public class GeminiKeyPool {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final List<Key> keys;
+    private final int failureThreshold;
+    private final long cooldownMillis;
+
+    /**
+     * One key in the pool, with its health and usage
+     * Mutable state is guarded by the pool
+     */
+    public static class Key {
+        private final String label;       // Masked key for logs and statistics
+        final String apiKey;
+        final String endpoint;            // generateContent endpoint of the model on this key's host
+        private final int weight;
+        private final int requestsPerMinute;  // 0: no quota
+        @Nullable
+        GeminiContextCache contextCache;  // Context caches are per project, so per key
+
+        // Smooth weighted round robin state
+        private int currentWeight = 0;
+        // Health
+        private int consecutiveRejections = 0;
+        private long benchedUntil = 0;
+        // Requests per second over the last minute
+        private final int[] secondCounts = new int[60];
+        private final long[] secondStamps = new long[60];
+
+        // Statistics
+        private long requests = 0;
+        private long rateLimited = 0;
+        private long forbidden = 0;
+        private long benchings = 0;
+
+        Key(String apiKey, String endpoint, int weight, int requestsPerMinute) {
+            this.apiKey = apiKey;
+            this.endpoint = endpoint;
+            this.weight = Math.max(1, weight);
+            this.requestsPerMinute = requestsPerMinute;
+            this.label = "..." + apiKey.substring(Math.max(0, apiKey.length() - 4));
+        }
+
+        private void recordRequest(long now) {
+            int slot = (int) ((now / 1000) % 60);
+            if (secondStamps[slot] != now / 1000) {
+                secondStamps[slot] = now / 1000;
+                secondCounts[slot] = 0;
+            }
+            secondCounts[slot]++;
+            requests++;
+        }
+
+        private int usedLastMinute(long now) {
+            long second = now / 1000;
+            int used = 0;
+            for (int i = 0; i < 60; i++) {
+                if (second - secondStamps[i] < 60) {
+                    used += secondCounts[i];
+                }
+            }
+            return used;
+        }
+
+        /**
+         * Milliseconds until this key is under its per-minute quota again, or 0 if it is now
+         */
+        private long quotaWait(long now) {
+            if (requestsPerMinute <= 0 || usedLastMinute(now) < requestsPerMinute) {
+                return 0;
+            }
+            // Wait for the oldest second still counted to leave the window
+            long second = now / 1000;
+            long oldest = second;
+            for (int i = 0; i < 60; i++) {
+                if (second - secondStamps[i] < 60 && secondCounts[i] > 0) {
+                    oldest = Math.min(oldest, secondStamps[i]);
+                }
+            }
+            return Math.max(1, (oldest + 60) * 1000 - now);
+        }
+
+        String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Read-only snapshot of a key's state for statistics
+     */
+    public static class KeyStats {
+        public final String label;
+        public final boolean inRotation;
+        public final int usedLastMinute;
+        public final int requestsPerMinute;
+        public final long requests;
+        public final long rateLimited;
+        public final long forbidden;
+        public final long benchings;
+
+        private KeyStats(Key key, long now) {
+            this.label = key.label;
+            this.inRotation = key.benchedUntil <= now;
+            this.usedLastMinute = key.usedLastMinute(now);
+            this.requestsPerMinute = key.requestsPerMinute;
+            this.requests = key.requests;
+            this.rateLimited = key.rateLimited;
+            this.forbidden = key.forbidden;
+            this.benchings = key.benchings;
+        }
+    }
+
+    /**
+     * Thrown when no key is usable, before any request is sent
+     * Retryable like a 429 (with the time until a key is usable as Retry-After),
+     * but not a sign of backend overload
+     */
+    public static class NoKeyAvailableException extends RecipeBackendException {
+        public NoKeyAvailableException(long retryAfterMillis) {
+            super("No Gemini API key available (all out of rotation or over quota)", 429, retryAfterMillis);
+        }
+
+        @Override
+        public boolean isLocal() {
+            return true;
+        }
+    }
+
+    private GeminiKeyPool(List<Key> keys, int failureThreshold, long cooldownMillis) {
+        this.keys = keys;
+        this.failureThreshold = failureThreshold;
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    /**
+     * Pool holding a single key (no rotation)
+     */
+    public static GeminiKeyPool single(String endpoint, String apiKey) {
+        List<Key> keys = new ArrayList<>(1);
+        if (apiKey != null && !apiKey.isEmpty()) {
+            keys.add(new Key(apiKey, endpoint, 1, 0));
+        }
+        return new GeminiKeyPool(keys, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Build a pool from config entries
+     * Each entry is either a bare API key or "key=...;weight=N;rpm=N;endpoint=https://host/v1beta",
+     * where weight, rpm and endpoint are optional
+     *
+     * @param endpoint         generateContent endpoint of the model; its model is used with entries that name their own host
+     * @param failureThreshold Consecutive 429/403 responses that take a key out of rotation
+     * @param cooldownMillis   How long a key stays out of rotation
+     */
+    public static GeminiKeyPool fromConfig(String endpoint, List<String> entries, int failureThreshold, long cooldownMillis) {
+        List<Key> keys = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            Key key = parseEntry(endpoint, entry);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        return new GeminiKeyPool(keys, failureThreshold, cooldownMillis);
+    }
+
+    @Nullable
+    private static Key parseEntry(String endpoint, String entry) {
+        if (!entry.contains("=")) {
+            return entry.isBlank() ? null : new Key(entry.trim(), endpoint, 1, 0);
+        }
+        String apiKey = null;
+        String apiBase = null;
+        int weight = 1;
+        int requestsPerMinute = 0;
+        for (String field : entry.split(";")) {
+            int equals = field.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String name = field.substring(0, equals).trim();
+            String value = field.substring(equals + 1).trim();
+            try {
+                switch (name) {
+                    case "key" -> apiKey = value;
+                    case "weight" -> weight = Integer.parseInt(value);
+                    case "rpm" -> requestsPerMinute = Integer.parseInt(value);
+                    case "endpoint" -> apiBase = value;
+                    default -> LOGGER.warn("Unknown field '{}' in Gemini API key entry", name);
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid {} '{}' in Gemini API key entry", name, value);
+            }
+        }
+        if (apiKey == null || apiKey.isEmpty()) {
+            LOGGER.warn("Ignoring Gemini API key entry without a key");
+            return null;
+        }
+        String keyEndpoint = apiBase == null ? endpoint
+                : stripSlash(apiBase) + "/models/" + RecipeBackends.modelName(endpoint) + ":generateContent";
+        return new Key(apiKey, keyEndpoint, weight, requestsPerMinute);
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Give every key its own context cache
+     */
+    void attachContextCaches(Function<Key, GeminiContextCache> factory) {
+        for (Key key : keys) {
+            key.contextCache = factory.apply(key);
+        }
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    List<Key> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Pick the key for the next request and count it against the key's quota
+     *
+     * @throws NoKeyAvailableException (with the time until a key is usable again) if no key is usable
+     */
+    synchronized Key select() {
+        long now = System.currentTimeMillis();
+        Key best = null;
+        int totalWeight = 0;
+        long soonest = Long.MAX_VALUE;
+        for (Key key : keys) {
+            if (key.benchedUntil > now) {
+                soonest = Math.min(soonest, key.benchedUntil - now);
+                continue;
+            }
+            if (key.benchedUntil != 0) {
+                key.benchedUntil = 0;
+                LOGGER.info("Gemini API key {} is back in rotation", key.label);
+            }
+            long quotaWait = key.quotaWait(now);
+            if (quotaWait > 0) {
+                soonest = Math.min(soonest, quotaWait);
+                continue;
+            }
+            key.currentWeight += key.weight;
+            totalWeight += key.weight;
+            if (best == null || key.currentWeight > best.currentWeight) {
+                best = key;
+            }
+        }
+        if (best == null) {
+            throw new NoKeyAvailableException(soonest == Long.MAX_VALUE ? -1 : soonest);
+        }
+        best.currentWeight -= totalWeight;
+        best.recordRequest(now);
+        return best;
+    }
+
+    /**
+     * Record the HTTP status a key's request was answered with (0 if no response was received)
+     */
+    synchronized void report(Key key, int statusCode) {
+        if (statusCode == 429 || statusCode == 403) {
+            if (statusCode == 429) {
+                key.rateLimited++;
+            } else {
+                key.forbidden++;
+            }
+            if (++key.consecutiveRejections >= failureThreshold) {
+                key.consecutiveRejections = 0;
+                key.benchedUntil = System.currentTimeMillis() + cooldownMillis;
+                key.benchings++;
+                LOGGER.warn("Gemini API key {} taken out of rotation for {} s after repeated {} responses",
+                        key.label, TimeUnit.MILLISECONDS.toSeconds(cooldownMillis), statusCode);
+            }
+        } else if (statusCode == 200) {
+            key.consecutiveRejections = 0;
+        }
+    }
+
+    /**
+     * Snapshot of every key's state
+     */
+    public synchronized List<KeyStats> getStats() {
+        long now = System.currentTimeMillis();
+        List<KeyStats> stats = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            stats.add(new KeyStats(key, now));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,152 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+/**
+ * Incremental JSON reader for streamed recipe responses
+ * Text chunks are fed as they arrive; top-level fields and each element of the
+ * "ingredients" array are emitted to the listener as soon as they are complete.
+ * Anything before the root object (e.g. a markdown fence) is skipped.
+ */
+public class IncrementalRecipeParser {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final RecipeStreamListener listener;
+    private final StringBuilder buffer = new StringBuilder();
+
+    // Scanner state
+    private int position = 0;
+    private int depth = 0;
+    private boolean started = false;
+    private boolean inString = false;
+    private boolean escape = false;
+    private boolean expectKey = false;
+    private int stringStart = -1;
+    private String currentKey = null;
+    private int valueStart = -1;
+    private int elementStart = -1;
+
+    public IncrementalRecipeParser(RecipeStreamListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Feed the next chunk of model output
+     */
+    public void feed(String chunk) {
+        buffer.append(chunk);
+        for (; position < buffer.length(); position++) {
+            char c = buffer.charAt(position);
+
+            if (!started) {
+                if (c == '{') {
+                    started = true;
+                    depth = 1;
+                    expectKey = true;
+                }
+                continue;
+            }
+            if (depth == 0) {
+                continue; // Root object already closed
+            }
+
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 1 && expectKey) {
+                        currentKey = buffer.substring(stringStart + 1, position);
+                        expectKey = false;
+                    }
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    stringStart = position;
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        valueStart = position + 1;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        emitField();
+                        expectKey = true;
+                    }
+                }
+                case '{', '[' -> {
+                    depth++;
+                    if (c == '{' && depth == 3 && "ingredients".equals(currentKey)) {
+                        elementStart = position;
+                    }
+                }
+                case '}', ']' -> {
+                    if (c == '}' && depth == 3 && elementStart >= 0) {
+                        emitIngredient(buffer.substring(elementStart, position + 1));
+                        elementStart = -1;
+                    }
+                    if (depth == 1) {
+                        emitField(); // Last field of the root object
+                    }
+                    depth--;
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Get all text fed so far
+     */
+    public String getText() {
+        return buffer.toString();
+    }
+
+    private void emitField() {
+        if (currentKey == null || valueStart < 0) {
+            return;
+        }
+        String key = currentKey;
+        String rawValue = buffer.substring(valueStart, position).trim();
+        currentKey = null;
+        valueStart = -1;
+
+        try {
+            JsonElement value = JsonParser.parseString(rawValue);
+            switch (key) {
+                case "dishName" -> listener.onDishName(value.getAsString());
+                case "nutritionPer100g" -> listener.onNutritionPer100g(value.getAsFloat());
+                case "saturationPer100g" -> listener.onSaturationPer100g(value.getAsFloat());
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Skipping unparseable streamed field {}: {}", key, rawValue);
+        }
+    }
+
+    private void emitIngredient(String rawObject) {
+        try {
+            JsonObject ingredient = JsonParser.parseString(rawObject).getAsJsonObject();
+            listener.onIngredient(new RecipeGenerator.RecipeData.Ingredient(
+                    ingredient.get("item").getAsString(),
+                    ingredient.get("amountType").getAsString(),
+                    ingredient.get("amount").getAsFloat()
+            ));
+        } catch (Exception e) {
+            LOGGER.debug("Skipping unparseable streamed ingredient: {}", rawObject);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of recent latencies (milliseconds) for percentile estimates
+ */
+class LatencyWindow {
+    private final long[] samples;
+    private int next = 0;
+    private int size = 0;
+
+    LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /**
+     * @return The percentile (0-1) of the recorded samples, or -1 if fewer than minSamples were recorded
+     */
+    synchronized long percentile(double percentile, int minSamples) {
+        if (size < minSamples || size == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile * size) - 1))];
+    }
+}
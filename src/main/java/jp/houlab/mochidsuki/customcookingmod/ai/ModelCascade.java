@@ -0,0 +1,116 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Model Cascade
+ * Ordered list of model backends, fastest and cheapest first. RecipeGenerator asks the first tier
+ * and moves to the next one only when the recipe it returned fails validation, so simple dishes
+ * never pay for the stronger model.
+ */
+public class ModelCascade {
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCY_SAMPLES = 5;
+
+    private final List<Tier> tiers;
+
+    /**
+     * One model in the cascade, with its statistics
+     */
+    public static class Tier {
+        private final String model;
+        private final RecipeBackend backend;
+        private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW);
+
+        // Statistics
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong resolved = new AtomicLong();
+        private final AtomicLong escalated = new AtomicLong();
+
+        public Tier(String model, RecipeBackend backend) {
+            this.model = model;
+            this.backend = backend;
+        }
+
+        /**
+         * Record one call to this tier
+         *
+         * @param resolved Whether it produced a valid recipe (otherwise the request escalates or fails)
+         */
+        void record(long latencyMillis, boolean resolved) {
+            attempts.incrementAndGet();
+            latencies.record(latencyMillis);
+            (resolved ? this.resolved : this.escalated).incrementAndGet();
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public RecipeBackend getBackend() {
+            return backend;
+        }
+
+        public long getAttemptCount() {
+            return attempts.get();
+        }
+
+        /**
+         * Number of requests this tier answered with a valid recipe
+         */
+        public long getResolvedCount() {
+            return resolved.get();
+        }
+
+        /**
+         * Number of requests this tier failed (passed on to the next tier, or failed on the last one)
+         */
+        public long getEscalatedCount() {
+            return escalated.get();
+        }
+
+        /**
+         * Percentile (0-1) of recent call latencies including parsing, or -1 with too few samples
+         */
+        public long getLatencyPercentile(double percentile) {
+            return latencies.percentile(percentile, MIN_LATENCY_SAMPLES);
+        }
+    }
+
+    public ModelCascade(List<Tier> tiers) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("A model cascade needs at least one tier");
+        }
+        this.tiers = List.copyOf(tiers);
+    }
+
+    /**
+     * Cascade of a single backend (no escalation)
+     */
+    public static ModelCascade of(RecipeBackend backend) {
+        return new ModelCascade(List.of(new Tier(backend.getName(), backend)));
+    }
+
+    public List<Tier> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Backend of the first tier
+     */
+    public RecipeBackend getPrimary() {
+        return tiers.get(0).backend;
+    }
+
+    /**
+     * Warm up every tier's connection (called when the server starts)
+     */
+    public void warmUp() {
+        tiers.forEach(tier -> tier.backend.warmUp());
+    }
+
+    public void close() {
+        tiers.forEach(tier -> tier.backend.close());
+    }
+}
@@ -0,0 +1,262 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.locale.Language;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prompt Template
+ * Compiles the static part of the recipe prompt (role, ingredient catalog, appliances, rules and output format)
+ * once per tag reload, so each request only appends the dish name and category.
+ * The ingredient catalog is read from the customcookingmod:ingredients/catalog item tag, and appliances
+ * from other mods are only listed when their items are registered.
+ */
+@Mod.EventBusSubscriber(modid = CustomcookingmodMain.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PromptTemplate {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final TagKey<Item> CATALOG = ItemTags.create(new ResourceLocation(CustomcookingmodMain.MODID, "ingredients/catalog"));
+
+    // Appliances offered to the model: item id (must be registered) and how it is used
+    private static final String[][] APPLIANCES = {
+            {"customcookingmod:ih_heater", "IHヒーターで焼く (customcookingmod:ih_heater + customcookingmod:frying_pan)"},
+            {"customcookingmod:bowl", "ボウルでかき混ぜる (customcookingmod:bowl + customcookingmod:spatula)"},
+            {"customcookingmod:oven", "オーブンにかける (customcookingmod:oven)"},
+            {"customcookingmod:rice_cooker", "ご飯を炊く (customcookingmod:rice_cooker)"},
+            {"customcookingmod:microwave", "レンチン (customcookingmod:microwave)"},
+            {"customcookingmod:hot_plate", "ホットプレートで焼く (customcookingmod:hot_plate)"},
+            {"kaleidoscope_cookery:stove", "ストーブで焼く (kaleidoscope_cookery:stove)"},
+            {"kaleidoscope_cookery:pot", "鍋でゆでる (kaleidoscope_cookery:pot)"},
+            {"kaleidoscope_cookery:stockpot", "大鍋で煮込む (kaleidoscope_cookery:stockpot)"},
+            {"kaleidoscope_cookery:steamer", "蒸し器で蒸す (kaleidoscope_cookery:steamer)"},
+            {"kaleidoscope_cookery:chopping_board", "まな板で切る (kaleidoscope_cookery:chopping_board + kaleidoscope_cookery:kitchen_knife)"},
+            {"kaleidoscope_cookery:millstone", "粉挽き機で挽く (kaleidoscope_cookery:millstone)"}
+    };
+
+    private static volatile PromptTemplate current;
+
+    // Statistics across all templates
+    private static final AtomicLong renderCount = new AtomicLong();
+    private static final AtomicLong renderedTokens = new AtomicLong();
+
+    private final String prefix;
+    private final int prefixTokens;
+    private final int catalogSize;
+
+    private PromptTemplate(String prefix, int catalogSize) {
+        this.prefix = prefix;
+        this.prefixTokens = estimateTokens(prefix);
+        this.catalogSize = catalogSize;
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        // Only the server builds prompts
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompile the template from the current registries and tags
+     */
+    public static PromptTemplate rebuild() {
+        PromptTemplate template = compile();
+        current = template;
+        LOGGER.info("Compiled recipe prompt template ({} catalog items, {} chars, ~{} tokens)",
+                template.catalogSize, template.prefix.length(), template.prefixTokens);
+        return template;
+    }
+
+    /**
+     * Get the compiled template, compiling it on first use
+     */
+    public static PromptTemplate get() {
+        PromptTemplate template = current;
+        return template != null ? template : rebuild();
+    }
+
+    /**
+     * Build the full prompt for one request
+     * The static prefix comes first so identical prefixes can be cached by the model provider
+     */
+    public String render(String dishName, String category) {
+        StringBuilder prompt = new StringBuilder(prefix.length() + 160 + dishName.length() * 2 + category.length());
+        prompt.append(prefix);
+        appendRequest(prompt, dishName, category);
+        renderCount.incrementAndGet();
+        renderedTokens.addAndGet(prefixTokens + estimateTokens(prompt.subSequence(prefix.length(), prompt.length())));
+        return prompt.toString();
+    }
+
+    /**
+     * Build one prompt asking for a JSON array with a recipe for each dish, in order
+     * The prefix is the same as for single requests, so it is cached the same way
+     */
+    public String renderBatch(List<RecipeGenerator.DishRequest> dishes) {
+        StringBuilder prompt = new StringBuilder(prefix.length() + 240 + dishes.size() * 80);
+        prompt.append(prefix);
+        prompt.append("=== 注文 (").append(dishes.size()).append("件) ===\n");
+        prompt.append("プレイヤーから次の料理の注文がありました。それぞれのレシピを考案してください。\n");
+        for (int i = 0; i < dishes.size(); i++) {
+            RecipeGenerator.DishRequest dish = dishes.get(i);
+            prompt.append(i + 1).append(". 「").append(dish.dishName).append("」 (カテゴリ: ").append(dish.category).append(")\n");
+        }
+        prompt.append("\n上記のJSON形式のレシピを注文の順に").append(dishes.size()).append("個並べたJSON配列で応答してください。\n");
+        prompt.append("各レシピのdishNameには注文の料理名をそのまま指定してください。\n\n");
+        prompt.append("IMPORTANT: JSON配列のみを返してください。説明文は不要です。");
+        renderCount.incrementAndGet();
+        renderedTokens.addAndGet(prefixTokens + estimateTokens(prompt.subSequence(prefix.length(), prompt.length())));
+        return prompt.toString();
+    }
+
+    /**
+     * Request-specific section of the prompt
+     */
+    private static void appendRequest(StringBuilder prompt, String dishName, String category) {
+        prompt.append("=== 注文 ===\n");
+        prompt.append("プレイヤーが「").append(dishName).append("」を作りたいと言っています。\n");
+        prompt.append("カテゴリ: ").append(category).append("\n");
+        prompt.append("dishNameには「").append(dishName).append("」を指定してください。\n\n");
+        prompt.append("IMPORTANT: JSONのみを返してください。説明文は不要です。");
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public int getPrefixTokens() {
+        return prefixTokens;
+    }
+
+    public int getCatalogSize() {
+        return catalogSize;
+    }
+
+    public static long getRenderCount() {
+        return renderCount.get();
+    }
+
+    /**
+     * Average estimated prompt size in tokens over all rendered prompts
+     */
+    public static long getAverageTokens() {
+        long count = renderCount.get();
+        return count > 0 ? renderedTokens.get() / count : 0;
+    }
+
+    /**
+     * Rough token count of a prompt
+     * About four ASCII characters per token; Japanese text is counted as one token per character
+     */
+    public static int estimateTokens(CharSequence text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    private static PromptTemplate compile() {
+        StringBuilder prompt = new StringBuilder(4096);
+        prompt.append("あなたはMinecraftの料理マイスターです。\n");
+        prompt.append("プレイヤーが注文した料理のレシピを、以下の利用可能な材料とアイテムを使って考案してください。\n\n");
+
+        int catalogSize = appendCatalog(prompt);
+
+        prompt.append("=== 利用可能な調理法 ===\n");
+        int number = 1;
+        for (String[] appliance : APPLIANCES) {
+            if (ForgeRegistries.ITEMS.containsKey(new ResourceLocation(appliance[0]))) {
+                prompt.append(number++).append(". ").append(appliance[1]).append('\n');
+            }
+        }
+        prompt.append('\n');
+
+        prompt.append("以下のJSON形式で応答してください:\n\n");
+        prompt.append("重要なルール:\n");
+        prompt.append("1. レシピは100gあたりの分量で指定してください\n");
+        prompt.append("2. 材料は2種類の単位があります:\n");
+        prompt.append("   - amountType=\"grams\": 粉や液体など個数カウントできないもの（塩、醤油、小麦粉、水、油など）\n");
+        prompt.append("   - amountType=\"count\": 個数でカウントできる固形物（トマト、肉、卵、ニンジンなど）\n");
+        prompt.append("3. totalWeightGramsは100固定にしてください\n");
+        prompt.append("4. nutritionPer100gとsaturationPer100gには100gあたりの満腹度回復量を指定\n");
+        prompt.append("5. 材料のitemには上記の一覧にあるIDのみを使ってください\n\n");
+        prompt.append("{\n");
+        prompt.append("  \"dishName\": \"料理名\",\n");
+        prompt.append("  \"totalWeightGrams\": 100,\n");
+        prompt.append("  \"ingredients\": [\n");
+        prompt.append("    {\"item\": \"minecraft:wheat\", \"amountType\": \"grams\", \"amount\": 30.0},\n");
+        prompt.append("    {\"item\": \"customcookingmod:salt\", \"amountType\": \"grams\", \"amount\": 0.5},\n");
+        prompt.append("    {\"item\": \"minecraft:egg\", \"amountType\": \"count\", \"amount\": 0.05}\n");
+        prompt.append("  ],\n");
+        prompt.append("  \"steps\": [\n");
+        prompt.append("    {\"action\": \"mix_in_bowl\", \"description\": \"ボウルで小麦と塩を混ぜる\"},\n");
+        prompt.append("    {\"action\": \"cook_in_oven\", \"description\": \"オーブンで焼く\"}\n");
+        prompt.append("  ],\n");
+        prompt.append("  \"nutritionPer100g\": 2.5,\n");
+        prompt.append("  \"saturationPer100g\": 0.3,\n");
+        prompt.append("  \"expirationHours\": 48\n");
+        prompt.append("}\n\n");
+
+        return new PromptTemplate(prompt.toString(), catalogSize);
+    }
+
+    /**
+     * Ingredient catalog grouped by namespace, in a stable order so the prefix is identical across restarts
+     */
+    private static int appendCatalog(StringBuilder prompt) {
+        Map<String, List<String>> byNamespace = new TreeMap<>();
+        for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(CATALOG)) {
+            ResourceLocation id = BuiltInRegistries.ITEM.getKey(holder.value());
+            byNamespace.computeIfAbsent(id.getNamespace(), namespace -> new ArrayList<>()).add(describe(id, holder.value()));
+        }
+
+        int count = 0;
+        for (Map.Entry<String, List<String>> entry : byNamespace.entrySet()) {
+            List<String> items = entry.getValue();
+            items.sort(null);
+            prompt.append("=== 食材 (").append(entry.getKey()).append(") ===\n");
+            for (String item : items) {
+                prompt.append("- ").append(item).append('\n');
+            }
+            prompt.append('\n');
+            count += items.size();
+        }
+        if (count == 0) {
+            LOGGER.warn("Item tag {} is empty; the recipe prompt has no ingredient catalog", CATALOG.location());
+        }
+        return count;
+    }
+
+    /**
+     * Item id, followed by its display name when the server has a translation for it
+     */
+    private static String describe(ResourceLocation id, Item item) {
+        String key = item.getDescriptionId();
+        Language language = Language.getInstance();
+        return language.has(key) ? id + " (" + language.getOrDefault(key) + ")" : id.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Recipe Backend
+ * Service provider interface for the model that turns a prompt into recipe text.
+ * Implementations complete exceptionally with a RecipeBackendException when the call fails,
+ * or with null when the model answered but produced no usable text.
+ */
+public interface RecipeBackend {
+    Logger LOGGER = LogUtils.getLogger();
+
+    /**
+     * Send a prompt and get the generated text asynchronously
+     */
+    CompletableFuture<String> generateRecipe(String prompt);
+
+    /**
+     * Send a prompt and receive the generated text in fragments as it is produced
+     *
+     * @param onText Receives each generated text fragment in order
+     * @return CompletableFuture with the full concatenated response
+     */
+    CompletableFuture<String> generateRecipeStreaming(String prompt, Consumer<String> onText);
+
+    /**
+     * Send a prompt that asks for several recipes at once and get the generated JSON array text
+     * Backends that can constrain the output shape ask for exactly count elements;
+     * by default the prompt is sent as is
+     *
+     * @param count Number of recipes the prompt asks for
+     */
+    default CompletableFuture<String> generateRecipeBatch(String prompt, int count) {
+        return generateRecipe(prompt);
+    }
+
+    /**
+     * Short name used in logs and statistics
+     */
+    String getName();
+
+    /**
+     * Prepare connections in the background so the first request is fast (called when the server starts)
+     */
+    default void warmUp() {
+    }
+
+    /**
+     * Release resources held by this backend
+     */
+    default void close() {
+    }
+
+    /**
+     * Find a backend of the given type in a chain of decorators
+     *
+     * @return This backend or one it delegates to, or null if none has the type
+     */
+    default <T extends RecipeBackend> T unwrap(Class<T> type) {
+        return type.isInstance(this) ? type.cast(this) : null;
+    }
+
+    /**
+     * Synchronous version of generateRecipe (blocks until response is received)
+     * Returns null if the call failed
+     */
+    default String generateRecipeSync(String prompt) {
+        try {
+            return generateRecipe(prompt).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to generate recipe: {}", RecipeBackendException.of(e).getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Synchronous version of generateRecipeStreaming (blocks until the stream ends)
+     * Returns null if the call failed
+     */
+    default String generateRecipeStreamingSync(String prompt, Consumer<String> onText) {
+        try {
+            return generateRecipeStreaming(prompt, onText).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to generate recipe: {}", RecipeBackendException.of(e).getMessage());
+            return null;
+        }
+    }
+}
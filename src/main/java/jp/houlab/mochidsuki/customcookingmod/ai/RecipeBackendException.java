@@ -0,0 +1,106 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Recipe Backend Exception
+ * Failure of a backend call, carrying the HTTP status and the server's Retry-After hint
+ * so callers can decide whether and when to try again
+ */
+public class RecipeBackendException extends RuntimeException {
+    private final int statusCode;         // HTTP status, or 0 if no response was received
+    private final long retryAfterMillis;  // Retry-After hint, or -1 if none was given
+
+    public RecipeBackendException(String message, int statusCode, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public RecipeBackendException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+        this.retryAfterMillis = -1;
+    }
+
+    /**
+     * Failure for a non-200 HTTP response
+     */
+    public static RecipeBackendException fromResponse(String backend, int statusCode, HttpHeaders headers) {
+        return new RecipeBackendException(backend + " API error: " + statusCode, statusCode,
+                parseRetryAfter(headers.firstValue("Retry-After")));
+    }
+
+    /**
+     * Unwrap a failure from a completed future into a RecipeBackendException
+     * Transport failures (no response) become status 0
+     */
+    public static RecipeBackendException of(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RecipeBackendException backendException) {
+            return backendException;
+        }
+        if (cause instanceof TimeoutException) {
+            return new RecipeBackendException("Backend timed out: " + cause, cause);
+        }
+        return new RecipeBackendException((cause instanceof IOException ? "Backend unreachable: " : "Backend call failed: ") + cause, cause);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Whether the same request may succeed later: rate limiting, server errors, timeouts and lost connections
+     */
+    public boolean isRetryable() {
+        if (statusCode == 0) {
+            return getCause() == null || getCause() instanceof IOException || getCause() instanceof TimeoutException;
+        }
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Whether the failure happened before any request was sent (e.g. every API key is over its local quota)
+     * Such failures say nothing about the backend's health or load
+     */
+    public boolean isLocal() {
+        return false;
+    }
+
+    /**
+     * Parse a Retry-After header given in seconds or as an HTTP date
+     */
+    static long parseRetryAfter(Optional<String> header) {
+        if (header.isEmpty()) {
+            return -1;
+        }
+        String value = header.get().trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+}
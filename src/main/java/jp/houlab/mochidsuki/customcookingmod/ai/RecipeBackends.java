@@ -0,0 +1,135 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.Config;
+import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recipe Backend factory
+ * Creates the backend selected by Config.recipeBackend, one per model in the cascade
+ */
+public final class RecipeBackends {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final String GEMINI = "gemini";
+    public static final String STUB = "stub";
+
+    private RecipeBackends() {
+    }
+
+    /**
+     * Create the model cascade: one backend per model in Config.geminiCascadeModels,
+     * or only the model of Config.geminiApiEndpoint if no cascade is configured
+     */
+    public static ModelCascade createCascade() {
+        List<String> models = Config.geminiCascadeModels.isEmpty()
+                ? List.of(modelName(Config.geminiApiEndpoint))
+                : Config.geminiCascadeModels;
+        List<ModelCascade.Tier> tiers = new ArrayList<>(models.size());
+        for (String model : models) {
+            tiers.add(new ModelCascade.Tier(model, create(withModel(Config.geminiApiEndpoint, model))));
+        }
+        return new ModelCascade(tiers);
+    }
+
+    /**
+     * Create the configured backend for one model endpoint, wrapped in the configured retry/hedging/circuit
+     * breaker policy and (if enabled) the adaptive concurrency limit, which every attempt and hedge passes through
+     * Each model gets its own limits, since API quotas are per model.
+     * The stub backend starts a local stub server, which is stopped when the backend is closed
+     */
+    public static RecipeBackend create(String endpoint) {
+        RecipeBackend backend = createBase(endpoint);
+        if (Config.backendAdaptiveConcurrency) {
+            backend = new AdaptiveConcurrencyBackend(backend, Config.backendConcurrencyInitial, 1, Config.backendConcurrencyMax);
+        }
+        return new ResilientRecipeBackend(backend, resiliencePolicy());
+    }
+
+    private static RecipeBackend createBase(String endpoint) {
+        if (STUB.equals(Config.recipeBackend)) {
+            try {
+                return createStub(modelName(endpoint));
+            } catch (IOException e) {
+                LOGGER.error("Failed to start Gemini stub server, falling back to the Gemini API", e);
+            }
+        }
+        GeminiKeyPool keys = Config.geminiApiKeys.isEmpty()
+                ? GeminiKeyPool.single(endpoint, Config.geminiApiKey)
+                : GeminiKeyPool.fromConfig(endpoint, Config.geminiApiKeys, Config.geminiKeyFailureThreshold,
+                        TimeUnit.SECONDS.toMillis(Config.geminiKeyCooldownSeconds));
+        return new GeminiApiClient(keys, Config.geminiContextCache);
+    }
+
+    static ResilientRecipeBackend.Policy resiliencePolicy() {
+        return new ResilientRecipeBackend.Policy(
+                Config.backendMaxAttempts,
+                Config.backendRetryBaseDelayMillis,
+                Config.backendRetryMaxDelayMillis,
+                Config.backendHedging,
+                Config.backendHedgeMinDelayMillis,
+                Config.backendCircuitFailureThreshold,
+                TimeUnit.SECONDS.toMillis(Config.backendCircuitOpenSeconds)
+        );
+    }
+
+    private static RecipeBackend createStub(String model) throws IOException {
+        Path recordings = FMLPaths.CONFIGDIR.get()
+                .resolve(CustomcookingmodMain.MODID)
+                .resolve("stub_responses");
+        StubGeminiServer stub = StubGeminiServer.start(recordings, new StubGeminiServer.Settings(
+                Config.stubLatencyMillis,
+                Config.stubLatencyJitterMillis,
+                Config.stubRateLimitRate,
+                Config.stubServerErrorRate,
+                Config.stubSeed
+        ));
+
+        return new GeminiApiClient(stub.getEndpoint(model), "stub-key", Config.geminiContextCache) {
+            @Override
+            public String getName() {
+                return STUB;
+            }
+
+            @Override
+            public void close() {
+                super.close();
+                stub.stop();
+            }
+        };
+    }
+
+    /**
+     * Replace the model in a ".../models/{model}:generateContent" endpoint
+     */
+    static String withModel(String endpoint, String model) {
+        int start = endpoint.lastIndexOf("/models/");
+        if (start < 0) {
+            return endpoint;
+        }
+        start += "/models/".length();
+        int end = endpoint.indexOf(':', start);
+        return endpoint.substring(0, start) + model + (end < 0 ? "" : endpoint.substring(end));
+    }
+
+    /**
+     * Extract the model name from a ".../models/{model}:generateContent" endpoint
+     */
+    static String modelName(String endpoint) {
+        int start = endpoint.lastIndexOf("/models/");
+        if (start < 0) {
+            return "stub";
+        }
+        start += "/models/".length();
+        int end = endpoint.indexOf(':', start);
+        return end < 0 ? endpoint.substring(start) : endpoint.substring(start, end);
+    }
+}
@@ -0,0 +1,390 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Recipe Cache
+ * Sits in front of RecipeGenerator so repeated requests for the same dish skip the AI round-trip.
+ * Hot entries are kept in memory (LRU with TTL, bounded by entry count and bytes);
+ * every entry is also written to the world save directory so the cache survives restarts.
+ * The on-disk store has its own entry and byte bounds; the oldest files are deleted first.
+ */
+public class RecipeCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final String FILE_EXTENSION = ".json";
+
+    private final LinkedHashMap<RecipeKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Path directory;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private long currentBytes = 0;
+
+    // On-disk store index by file hash, oldest first; guarded by itself
+    private final LinkedHashMap<String, DiskEntry> diskEntries = new LinkedHashMap<>();
+    private final int diskMaxEntries;
+    private final long diskMaxBytes;
+    private long diskBytes = 0;
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Cache whose on-disk store has the same bounds as memory
+     *
+     * @param directory  Directory for the on-disk store, or null for memory only
+     * @param maxEntries Maximum number of entries held in memory
+     * @param maxBytes   Maximum serialized size of entries held in memory
+     * @param ttlMillis  Time to live for an entry (memory and disk)
+     */
+    public RecipeCache(Path directory, int maxEntries, long maxBytes, long ttlMillis) {
+        this(directory, maxEntries, maxBytes, maxEntries, maxBytes, ttlMillis);
+    }
+
+    /**
+     * @param directory      Directory for the on-disk store, or null for memory only
+     * @param maxEntries     Maximum number of entries held in memory
+     * @param maxBytes       Maximum serialized size of entries held in memory
+     * @param diskMaxEntries Maximum number of files in the on-disk store
+     * @param diskMaxBytes   Maximum total size of the files in the on-disk store
+     * @param ttlMillis      Time to live for an entry (memory and disk)
+     */
+    public RecipeCache(Path directory, int maxEntries, long maxBytes, int diskMaxEntries, long diskMaxBytes, long ttlMillis) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.diskMaxEntries = diskMaxEntries;
+        this.diskMaxBytes = diskMaxBytes;
+        this.ttlMillis = ttlMillis;
+
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                loadDiskIndex();
+            } catch (IOException e) {
+                LOGGER.error("Failed to prepare recipe cache directory: {}", directory, e);
+            }
+        }
+    }
+
+    /**
+     * Look up a recipe in memory only
+     * Cheap enough to call on the server thread
+     */
+    public RecipeGenerator.RecipeData getIfPresent(RecipeKey key) {
+        RecipeGenerator.RecipeData data = getFromMemory(key);
+        if (data != null) {
+            hits.incrementAndGet();
+        }
+        return data;
+    }
+
+    /**
+     * Look up a recipe in memory, then on disk
+     * Performs file IO on a miss; call from a worker thread
+     */
+    public RecipeGenerator.RecipeData get(RecipeKey key) {
+        RecipeGenerator.RecipeData data = getFromMemory(key);
+        if (data == null) {
+            data = readFromDisk(key);
+        }
+
+        if (data != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return data;
+    }
+
+    /**
+     * Store a recipe in memory and on disk
+     */
+    public void put(RecipeKey key, RecipeGenerator.RecipeData data) {
+        long now = System.currentTimeMillis();
+        String json = GSON.toJson(data);
+        putInMemory(key, data, json.getBytes(StandardCharsets.UTF_8).length, now);
+        writeToDisk(key, json, now);
+    }
+
+    private synchronized RecipeGenerator.RecipeData getFromMemory(RecipeKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry.createdAt, System.currentTimeMillis())) {
+            entries.remove(key);
+            currentBytes -= entry.sizeBytes;
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry.data;
+    }
+
+    private synchronized void putInMemory(RecipeKey key, RecipeGenerator.RecipeData data, int sizeBytes, long createdAt) {
+        Entry previous = entries.put(key, new Entry(data, sizeBytes, createdAt));
+        if (previous != null) {
+            currentBytes -= previous.sizeBytes;
+        }
+        currentBytes += sizeBytes;
+
+        // Evict least recently used entries until within bounds (the new entry is always kept)
+        Iterator<Map.Entry<RecipeKey, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && entries.size() > 1) {
+            Map.Entry<RecipeKey, Entry> eldest = iterator.next();
+            iterator.remove();
+            currentBytes -= eldest.getValue().sizeBytes;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private RecipeGenerator.RecipeData readFromDisk(RecipeKey key) {
+        if (directory == null) {
+            return null;
+        }
+
+        Path file = directory.resolve(key.contentHash() + FILE_EXTENSION);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try {
+            String json = Files.readString(file, StandardCharsets.UTF_8);
+            JsonObject root = GSON.fromJson(json, JsonObject.class);
+            long createdAt = root.get("createdAt").getAsLong();
+            if (isExpired(createdAt, System.currentTimeMillis())) {
+                deleteFile(key.contentHash());
+                return null;
+            }
+
+            RecipeGenerator.RecipeData data = GSON.fromJson(root.get("recipe"), RecipeGenerator.RecipeData.class);
+            putInMemory(key, data, root.get("recipe").toString().getBytes(StandardCharsets.UTF_8).length, createdAt);
+            return data;
+        } catch (Exception e) {
+            LOGGER.warn("Discarding unreadable recipe cache file: {}", file, e);
+            deleteFile(key.contentHash());
+            return null;
+        }
+    }
+
+    private void writeToDisk(RecipeKey key, String recipeJson, long createdAt) {
+        if (directory == null) {
+            return;
+        }
+
+        JsonObject root = new JsonObject();
+        root.addProperty("dishName", key.getDishName());
+        root.addProperty("category", key.getCategory());
+        root.addProperty("createdAt", createdAt);
+        root.add("recipe", GSON.fromJson(recipeJson, JsonObject.class));
+
+        String hash = key.contentHash();
+        Path file = directory.resolve(hash + FILE_EXTENSION);
+        Path temp = directory.resolve(hash + ".tmp");
+        byte[] bytes = GSON.toJson(root).getBytes(StandardCharsets.UTF_8);
+        synchronized (diskEntries) {
+            try {
+                Files.write(temp, bytes);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOGGER.error("Failed to write recipe cache file: {}", file, e);
+                return;
+            }
+            DiskEntry previous = diskEntries.remove(hash);
+            if (previous != null) {
+                diskBytes -= previous.sizeBytes;
+            }
+            diskEntries.put(hash, new DiskEntry(bytes.length, createdAt));
+            diskBytes += bytes.length;
+            trimDisk();
+        }
+    }
+
+    /**
+     * Index the on-disk store, deleting expired files, then trim it to its bounds
+     */
+    private void loadDiskIndex() throws IOException {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, DiskEntry>> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(FILE_EXTENSION)).forEach(path -> {
+                try {
+                    JsonObject root = GSON.fromJson(Files.readString(path, StandardCharsets.UTF_8), JsonObject.class);
+                    long createdAt = root.get("createdAt").getAsLong();
+                    if (isExpired(createdAt, now)) {
+                        Files.delete(path);
+                        return;
+                    }
+                    String name = path.getFileName().toString();
+                    found.add(Map.entry(name.substring(0, name.length() - FILE_EXTENSION.length()),
+                            new DiskEntry(Files.size(path), createdAt)));
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to inspect recipe cache file: {}", path, e);
+                }
+            });
+        }
+        found.sort(Comparator.comparingLong(entry -> entry.getValue().createdAt));
+        synchronized (diskEntries) {
+            for (Map.Entry<String, DiskEntry> entry : found) {
+                diskEntries.put(entry.getKey(), entry.getValue());
+                diskBytes += entry.getValue().sizeBytes;
+            }
+            trimDisk();
+        }
+    }
+
+    /**
+     * Delete the oldest files until the on-disk store is within its bounds (the newest file is always kept)
+     * Must hold the diskEntries lock
+     */
+    private void trimDisk() {
+        Iterator<Map.Entry<String, DiskEntry>> iterator = diskEntries.entrySet().iterator();
+        while ((diskEntries.size() > diskMaxEntries || diskBytes > diskMaxBytes) && diskEntries.size() > 1) {
+            Map.Entry<String, DiskEntry> oldest = iterator.next();
+            iterator.remove();
+            diskBytes -= oldest.getValue().sizeBytes;
+            try {
+                Files.deleteIfExists(directory.resolve(oldest.getKey() + FILE_EXTENSION));
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete recipe cache file: {}", oldest.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Delete one file from the on-disk store (best effort)
+     */
+    private void deleteFile(String hash) {
+        synchronized (diskEntries) {
+            DiskEntry entry = diskEntries.remove(hash);
+            if (entry != null) {
+                diskBytes -= entry.sizeBytes;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(hash + FILE_EXTENSION));
+            } catch (IOException ignored) {
+                // Best effort
+            }
+        }
+    }
+
+    private boolean isExpired(long createdAt, long now) {
+        return now - createdAt > ttlMillis;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Recipes currently held in memory, most recently used first
+     */
+    public synchronized List<RecipeGenerator.RecipeData> snapshot() {
+        long now = System.currentTimeMillis();
+        List<RecipeGenerator.RecipeData> recipes = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            if (!isExpired(entry.createdAt, now)) {
+                recipes.add(entry.data);
+            }
+        }
+        Collections.reverse(recipes);
+        return recipes;
+    }
+
+    /**
+     * Drop every entry held in memory (the on-disk store is kept)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * Number of recipes in the on-disk store
+     */
+    public int getDiskSize() {
+        synchronized (diskEntries) {
+            return diskEntries.size();
+        }
+    }
+
+    /**
+     * Total size of the files in the on-disk store
+     */
+    public long getDiskBytes() {
+        synchronized (diskEntries) {
+            return diskBytes;
+        }
+    }
+
+    private static class DiskEntry {
+        final long sizeBytes;
+        final long createdAt;
+
+        DiskEntry(long sizeBytes, long createdAt) {
+            this.sizeBytes = sizeBytes;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static class Entry {
+        final RecipeGenerator.RecipeData data;
+        final int sizeBytes;
+        final long createdAt;
+
+        Entry(RecipeGenerator.RecipeData data, int sizeBytes, long createdAt) {
+            this.data = data;
+            this.sizeBytes = sizeBytes;
+            this.createdAt = createdAt;
+        }
+    }
+}
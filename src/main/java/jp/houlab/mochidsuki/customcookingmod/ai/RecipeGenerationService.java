@@ -0,0 +1,400 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.Config;
+import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+import org.slf4j.Logger;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recipe Generation Service
+ * Runs AI recipe generation on a dedicated, bounded worker pool so the server thread never blocks.
+ * With batching enabled, a worker that picks up a job waits briefly for more queued dishes
+ * and generates them together in one model call.
+ */
+public class RecipeGenerationService {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private static RecipeGenerationService instance;
+
+    private final ThreadPoolExecutor executor;
+    private final FairRecipeQueue queue;
+    private final ModelCascade cascade;
+    private final RecipeGenerator generator;
+    private final RecipeCache cache;
+    private final SingleFlight<RecipeKey, RecipeGenerator.RecipeData> singleFlight = new SingleFlight<>();
+    private final RecipeCache loadTestCache;
+    private final SingleFlight<RecipeKey, RecipeGenerator.RecipeData> loadTestSingleFlight = new SingleFlight<>();
+    private final int batchMaxSize;
+    private final long batchLingerNanos;
+
+    private RecipeGenerationService(int threads, int queueDepth, int ownerQueueDepth, int batchMaxSize, long batchLingerMillis,
+                                    ModelCascade cascade, RecipeCache cache) {
+        this.queue = new FairRecipeQueue(queueDepth, ownerQueueDepth);
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                queue,
+                new WorkerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.cascade = cascade;
+        this.generator = new RecipeGenerator(cascade);
+        this.cache = cache;
+        this.loadTestCache = new RecipeCache(null, cache.getMaxEntries(), cache.getMaxBytes(), cache.getTtlMillis());
+        this.batchMaxSize = batchMaxSize;
+        this.batchLingerNanos = TimeUnit.MILLISECONDS.toNanos(batchLingerMillis);
+    }
+
+    /**
+     * Start the service (called when the server starts)
+     */
+    public static synchronized void start(MinecraftServer server) {
+        if (instance != null) {
+            return;
+        }
+        Path cacheDirectory = server.getWorldPath(LevelResource.ROOT)
+                .resolve(CustomcookingmodMain.MODID)
+                .resolve("recipe_cache");
+        RecipeCache cache = new RecipeCache(
+                cacheDirectory,
+                Config.recipeCacheMaxEntries,
+                Config.recipeCacheMaxBytes,
+                Config.recipeCacheDiskMaxEntries,
+                Config.recipeCacheDiskMaxBytes,
+                TimeUnit.HOURS.toMillis(Config.recipeCacheTtlHours)
+        );
+        ModelCascade cascade = RecipeBackends.createCascade();
+        instance = new RecipeGenerationService(Config.recipeGenerationThreads, Config.recipeQueueDepth,
+                Config.recipeQueueOwnerDepth, Config.recipeBatchMaxSize, Config.recipeBatchLingerMillis, cascade, cache);
+        cascade.warmUp();
+        LOGGER.info("Recipe generation service started ({} backend, {} model tier(s), {} threads, queue depth {}, batch size {})",
+                cascade.getPrimary().getName(), cascade.getTiers().size(), Config.recipeGenerationThreads, Config.recipeQueueDepth,
+                Config.recipeBatchMaxSize);
+    }
+
+    /**
+     * Stop the service (called when the server stops)
+     * Pending jobs are cancelled (their futures complete with a CancellationException);
+     * running jobs are interrupted and given a moment to finish before the backends are closed
+     */
+    public static synchronized void stop() {
+        if (instance == null) {
+            return;
+        }
+        List<Runnable> pending = instance.executor.shutdownNow();
+        CancellationException cancelled = new CancellationException("Recipe generation service stopped");
+        for (Runnable job : pending) {
+            Runnable task = job instanceof FairRecipeQueue.Job tagged ? tagged.task : job;
+            if (task instanceof GenerationTask generation) {
+                generation.future.completeExceptionally(cancelled);
+            }
+        }
+        try {
+            if (!instance.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Recipe generation workers did not stop within {} s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        instance.cascade.close();
+        LOGGER.info("Recipe generation service stopped (cache hits: {}, misses: {}, evictions: {})",
+                instance.cache.getHits(), instance.cache.getMisses(), instance.cache.getEvictions());
+        instance = null;
+    }
+
+    /**
+     * Get the running service
+     *
+     * @throws IllegalStateException if the service has not been started
+     */
+    public static RecipeGenerationService get() {
+        RecipeGenerationService service = instance;
+        if (service == null) {
+            throw new IllegalStateException("Recipe generation service is not running");
+        }
+        return service;
+    }
+
+    /**
+     * Queue a recipe generation job
+     * Recipes already in the in-memory cache complete immediately without queueing.
+     * Concurrent requests for the same normalized dish share one generation.
+     * Otherwise the returned future completes on a worker thread; callers must hop back
+     * to the server thread before touching world state
+     *
+     * @param dishName The name of the dish to create
+     * @param category The category of the dish
+     * @param listener Receives partial results while the recipe streams in (called off the server thread)
+     * @param owner    Queue lane the job is scheduled in; a job shared by several requesters stays in the first one's lane
+     * @return CompletableFuture with the generated recipe, or null if generation failed
+     * @throws RejectedExecutionException if the queue, or the owner's share of it, is full
+     */
+    public CompletableFuture<RecipeGenerator.RecipeData> submit(String dishName, String category, RecipeStreamListener listener,
+                                                                FairRecipeQueue.Owner owner) {
+        return submit(dishName, category, listener, owner, cache, singleFlight);
+    }
+
+    /**
+     * Queue a recipe generation job in the shared server lane
+     */
+    public CompletableFuture<RecipeGenerator.RecipeData> submit(String dishName, String category, RecipeStreamListener listener) {
+        return submit(dishName, category, listener, FairRecipeQueue.Owner.SERVER);
+    }
+
+    /**
+     * Queue a load test job in the shared server lane
+     * Load test recipes go to a separate memory-only cache, so they are never saved with the world
+     * or synced to client catalogs; clear it with resetLoadTest() before each run
+     */
+    public CompletableFuture<RecipeGenerator.RecipeData> submitLoadTest(String dishName, String category) {
+        return submit(dishName, category, RecipeStreamListener.NONE, FairRecipeQueue.Owner.SERVER, loadTestCache, loadTestSingleFlight);
+    }
+
+    /**
+     * Forget the recipes of previous load test runs, so the next run exercises the whole pipeline
+     */
+    public void resetLoadTest() {
+        loadTestCache.clear();
+    }
+
+    private CompletableFuture<RecipeGenerator.RecipeData> submit(String dishName, String category, RecipeStreamListener listener,
+                                                                 FairRecipeQueue.Owner owner, RecipeCache cache,
+                                                                 SingleFlight<RecipeKey, RecipeGenerator.RecipeData> singleFlight) {
+        RecipeKey key = RecipeKey.of(dishName, category);
+        RecipeGenerator.RecipeData cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Each flight has its own broadcaster, so joiners only ever replay and follow the flight they share
+        return singleFlight.execute(key, RecipeProgressBroadcaster::new, broadcaster -> broadcaster.subscribe(listener),
+                broadcaster -> {
+                    GenerationTask task = new GenerationTask(key, dishName, category, broadcaster, owner, cache);
+                    executor.execute(new FairRecipeQueue.Job(owner, key, task));
+                    return task.future;
+                });
+    }
+
+    /**
+     * Worker-side generation: check the persistent cache, then call the AI
+     */
+    private RecipeGenerator.RecipeData generate(RecipeCache cache, RecipeKey key, String dishName, String category,
+                                                RecipeStreamListener listener) {
+        RecipeGenerator.RecipeData data = cache.get(key);
+        if (data != null) {
+            LOGGER.info("Recipe cache hit for: {}", key);
+            return data;
+        }
+
+        data = generator.generateRecipeForDish(dishName, category, listener);
+        if (data != null) {
+            cache.put(key, data);
+        }
+        return data;
+    }
+
+    /**
+     * Worker-side batching: take up to batchMaxSize - 1 more queued jobs within the linger window,
+     * answer the ones already in the persistent cache, and generate the rest in one batched call.
+     * Dishes the batch produced are completed right away; the others are queued again as retry jobs,
+     * so each is generated individually by whichever worker is free instead of one after another here
+     */
+    private void runBatch(GenerationTask first) {
+        List<GenerationTask> batch = new ArrayList<>(batchMaxSize);
+        List<Runnable> others = new ArrayList<>();
+        batch.add(first);
+        for (Runnable job : queue.pollBatch(batchMaxSize - 1, batchLingerNanos)) {
+            Runnable task = job instanceof FairRecipeQueue.Job tagged ? tagged.task : job;
+            if (task instanceof GenerationTask generation) {
+                batch.add(generation);
+            } else {
+                others.add(job);
+            }
+        }
+
+        List<GenerationTask> misses = new ArrayList<>(batch.size());
+        for (GenerationTask task : batch) {
+            RecipeGenerator.RecipeData data = task.cache.get(task.key);
+            if (data != null) {
+                LOGGER.info("Recipe cache hit for: {}", task.key);
+                task.future.complete(data);
+            } else {
+                misses.add(task);
+            }
+        }
+        if (misses.size() == 1) {
+            misses.get(0).generateAlone();
+        } else if (!misses.isEmpty()) {
+            List<RecipeGenerator.DishRequest> dishes = new ArrayList<>(misses.size());
+            misses.forEach(task -> dishes.add(task.toDishRequest()));
+            List<RecipeGenerator.RecipeData> recipes;
+            try {
+                recipes = generator.generateRecipesForDishes(dishes);
+            } catch (RuntimeException e) {
+                misses.forEach(task -> task.future.completeExceptionally(e));
+                recipes = null;
+            }
+            if (recipes != null) {
+                List<GenerationTask> failed = new ArrayList<>();
+                for (int i = 0; i < misses.size(); i++) {
+                    RecipeGenerator.RecipeData data = recipes.get(i);
+                    if (data != null) {
+                        misses.get(i).cache.put(misses.get(i).key, data);
+                        misses.get(i).future.complete(data);
+                    } else {
+                        failed.add(misses.get(i));
+                    }
+                }
+                failed.forEach(this::retryAfterBatch);
+            }
+        }
+        others.forEach(Runnable::run);
+    }
+
+    /**
+     * Queue a dish the batch had no recipe for again, to be generated on its own
+     */
+    private void retryAfterBatch(GenerationTask task) {
+        task.afterBatch = true;
+        try {
+            executor.execute(new FairRecipeQueue.Job(task.owner, task.key, task, true));
+        } catch (RejectedExecutionException e) {
+            // Only when the service is stopping; retry jobs bypass the queue limits
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Backend of the first cascade tier
+     */
+    public RecipeBackend getBackend() {
+        return cascade.getPrimary();
+    }
+
+    public ModelCascade getCascade() {
+        return cascade;
+    }
+
+    public RecipeGenerator getGenerator() {
+        return generator;
+    }
+
+    public RecipeCache getCache() {
+        return cache;
+    }
+
+    public SingleFlight<RecipeKey, RecipeGenerator.RecipeData> getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Number of jobs waiting for a worker
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public FairRecipeQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Number of jobs currently being generated
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    /**
+     * Queued generation of one dish; its future completes on the worker that runs it
+     */
+    private class GenerationTask implements Runnable {
+        final RecipeKey key;
+        final String dishName;
+        final String category;
+        final RecipeStreamListener listener;
+        final FairRecipeQueue.Owner owner;
+        final RecipeCache cache;
+        final CompletableFuture<RecipeGenerator.RecipeData> future = new CompletableFuture<>();
+        volatile boolean afterBatch = false;  // Queued again because its batch had no recipe for it
+
+        GenerationTask(RecipeKey key, String dishName, String category, RecipeStreamListener listener, FairRecipeQueue.Owner owner,
+                       RecipeCache cache) {
+            this.key = key;
+            this.dishName = dishName;
+            this.category = category;
+            this.listener = listener;
+            this.owner = owner;
+            this.cache = cache;
+        }
+
+        @Override
+        public void run() {
+            if (batchMaxSize > 1 && !afterBatch) {
+                runBatch(this);
+            } else {
+                generateAlone();
+            }
+        }
+
+        /**
+         * Generate this dish by itself on the current worker
+         */
+        void generateAlone() {
+            try {
+                if (afterBatch) {
+                    RecipeGenerator.RecipeData data = cache.get(key);
+                    if (data == null) {
+                        data = generator.generateAfterBatch(toDishRequest());
+                        if (data != null) {
+                            cache.put(key, data);
+                        }
+                    }
+                    future.complete(data);
+                } else {
+                    future.complete(generate(cache, key, dishName, category, listener));
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        RecipeGenerator.DishRequest toDishRequest() {
+            return new RecipeGenerator.DishRequest(dishName, category, listener);
+        }
+    }
+
+    /**
+     * Thread factory producing named daemon worker threads
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CustomCooking-RecipeGen-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -2,15 +2,28 @@ package jp.houlab.mochidsuki.customcookingmod.ai;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.Config;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Recipe Generator using AI
@@ -19,10 +32,46 @@ import java.util.List;
 public class RecipeGenerator {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Gson GSON = new Gson();
-    private final GeminiApiClient apiClient;
+    private final ModelCascade cascade;
 
-    public RecipeGenerator() {
-        this.apiClient = new GeminiApiClient();
+    // Statistics
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong validResponses = new AtomicLong();
+    private final AtomicLong emptyResponses = new AtomicLong();
+    private final AtomicLong malformedResponses = new AtomicLong();
+    private final AtomicLong invalidResponses = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> violationsByField = new ConcurrentHashMap<>();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedDishes = new AtomicLong();
+    private final AtomicLong batchFallbacks = new AtomicLong();
+
+    /**
+     * One dish of a batched request, with the listener of the players waiting for it
+     */
+    public static class DishRequest {
+        public final String dishName;
+        public final String category;
+        final RecipeStreamListener listener;
+
+        public DishRequest(String dishName, String category, RecipeStreamListener listener) {
+            this.dishName = dishName;
+            this.category = category;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * @param backend Model backend that turns prompts into recipe text
+     */
+    public RecipeGenerator(RecipeBackend backend) {
+        this(ModelCascade.of(backend));
+    }
+
+    /**
+     * @param cascade Model backends tried in order until one returns a valid recipe
+     */
+    public RecipeGenerator(ModelCascade cascade) {
+        this.cascade = cascade;
     }
 
     /**
@@ -33,158 +82,316 @@ public class RecipeGenerator {
      * @return RecipeData containing the generated recipe information
      */
     public RecipeData generateRecipeForDish(String dishName, String category) {
-        String prompt = buildPrompt(dishName, category);
+        return generateRecipeForDish(dishName, category, RecipeStreamListener.NONE);
+    }
+
+    /**
+     * Generate a recipe for the given dish name, reporting partial results while streaming
+     * Each cascade tier is tried in order until one returns a recipe that passes validation.
+     * Partial results are only reported when streaming is enabled in the config, and only from the
+     * first tier, so an escalated request does not show the rejected recipe's ingredients twice
+     *
+     * @param dishName The name of the dish to create
+     * @param category The category of the dish (e.g., "donburi", "dessert")
+     * @param listener Receives dish name, nutrition and ingredients as soon as they are generated
+     * @return RecipeData containing the generated recipe information
+     */
+    public RecipeData generateRecipeForDish(String dishName, String category, RecipeStreamListener listener) {
+        requests.incrementAndGet();
         LOGGER.info("Generating recipe for: {} (category: {})", dishName, category);
+        return generateWithCascade(dishName, category, listener);
+    }
+
+    /**
+     * Generate recipes for several dishes with one call to the first cascade tier
+     * The response is a JSON array; each element is validated on its own and matched to its dish by name.
+     * Dishes without a valid recipe of their own name are left empty for the caller to generate
+     * individually (see generateAfterBatch), so one bad element does not hold up or fail the rest.
+     * The batched call does not stream; listeners only see partial results from individual generations
+     *
+     * @param dishes Dishes to generate
+     * @return Recipes in the order of the dishes, with null where the batch had no valid recipe
+     */
+    public List<RecipeData> generateRecipesForDishes(List<DishRequest> dishes) {
+        requests.addAndGet(dishes.size());
+        batches.incrementAndGet();
+        batchedDishes.addAndGet(dishes.size());
+        LOGGER.info("Generating {} recipes in one batch", dishes.size());
+
+        ModelCascade.Tier tier = cascade.getTiers().get(0);
+        long start = System.nanoTime();
+        RecipeData[] recipes = generateBatchWith(tier.getBackend(), dishes);
+        long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // The batch is one call to the tier; it counts as resolved only if every dish got a recipe
+        List<RecipeData> results = new ArrayList<>(dishes.size());
+        int missing = 0;
+        for (int i = 0; i < dishes.size(); i++) {
+            if (recipes[i] == null) {
+                missing++;
+                LOGGER.info("No valid recipe for {} in batch, it will be generated individually", dishes.get(i).dishName);
+            }
+            results.add(recipes[i]);
+        }
+        tier.record(latencyMillis, missing == 0);
+        batchFallbacks.addAndGet(missing);
+        return results;
+    }
+
+    /**
+     * Generate a dish the batch response had no valid recipe for, through the whole cascade
+     * The dish was already counted as a request by its batch
+     */
+    public RecipeData generateAfterBatch(DishRequest dish) {
+        LOGGER.info("Generating recipe for: {} (category: {}) after batch", dish.dishName, dish.category);
+        return generateWithCascade(dish.dishName, dish.category, dish.listener);
+    }
 
-        String aiResponse = apiClient.generateRecipeSync(prompt);
+    /**
+     * Try each cascade tier in order until one returns a valid recipe
+     */
+    private RecipeData generateWithCascade(String dishName, String category, RecipeStreamListener listener) {
+        String prompt = buildPrompt(dishName, category);
+        List<ModelCascade.Tier> tiers = cascade.getTiers();
+        for (int i = 0; i < tiers.size(); i++) {
+            ModelCascade.Tier tier = tiers.get(i);
+            long start = System.nanoTime();
+            RecipeData recipeData = generateWith(tier.getBackend(), prompt, dishName, i == 0 ? listener : RecipeStreamListener.NONE);
+            tier.record((System.nanoTime() - start) / 1_000_000, recipeData != null);
+            if (recipeData != null) {
+                return recipeData;
+            }
+            if (i + 1 < tiers.size()) {
+                LOGGER.info("Escalating {} from {} to {}", dishName, tier.getModel(), tiers.get(i + 1).getModel());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ask one backend for the recipe and validate its response
+     *
+     * @return The recipe, or null if there was no response or it failed validation
+     */
+    private RecipeData generateWith(RecipeBackend backend, String prompt, String dishName, RecipeStreamListener listener) {
+        String aiResponse;
+        if (Config.geminiStreaming) {
+            IncrementalRecipeParser parser = new IncrementalRecipeParser(listener);
+            aiResponse = backend.generateRecipeStreamingSync(prompt, parser::feed);
+        } else {
+            aiResponse = backend.generateRecipeSync(prompt);
+        }
         if (aiResponse == null || aiResponse.isEmpty()) {
+            emptyResponses.incrementAndGet();
             LOGGER.error("Failed to get AI response for dish: {}", dishName);
             return null;
         }
 
-        return parseRecipeData(aiResponse, dishName);
+        RecipeData recipeData = parseRecipeData(aiResponse, dishName);
+        if (recipeData == null) {
+            return null;
+        }
+        RecipeSchema.Violation violation = RecipeSchema.checkContent(recipeData);
+        if (violation != null) {
+            countViolation(violation);
+            LOGGER.error("AI recipe for {} failed validation at {}", dishName, violation);
+            return null;
+        }
+        validResponses.incrementAndGet();
+        return recipeData;
+    }
+
+    /**
+     * Ask one backend for a batch of recipes and validate each element of its response
+     *
+     * @return Recipes in the order of the dishes, with null where the response had no valid recipe
+     */
+    private RecipeData[] generateBatchWith(RecipeBackend backend, List<DishRequest> dishes) {
+        RecipeData[] recipes = new RecipeData[dishes.size()];
+        String prompt = PromptTemplate.get().renderBatch(dishes);
+        String aiResponse;
+        try {
+            aiResponse = backend.generateRecipeBatch(prompt, dishes.size()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aiResponse = null;
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to generate recipe batch: {}", RecipeBackendException.of(e).getMessage());
+            aiResponse = null;
+        }
+        if (aiResponse == null || aiResponse.isEmpty()) {
+            emptyResponses.incrementAndGet();
+            LOGGER.error("Failed to get AI response for a batch of {} dishes", dishes.size());
+            return recipes;
+        }
+
+        JsonElement parsed;
+        try {
+            parsed = JsonParser.parseString(extractJSONArray(aiResponse));
+        } catch (JsonParseException e) {
+            malformedResponses.incrementAndGet();
+            LOGGER.error("AI response for a batch of {} dishes is not valid JSON: {}", dishes.size(), e.getMessage());
+            return recipes;
+        }
+        JsonArray elements;
+        if (parsed.isJsonArray()) {
+            elements = parsed.getAsJsonArray();
+        } else {
+            // The model answered with a single recipe; it still counts for the dish it names
+            elements = new JsonArray();
+            elements.add(parsed);
+        }
+
+        for (int i = 0; i < elements.size(); i++) {
+            String label = "batch element " + i;
+            RecipeData recipe = toRecipeData(elements.get(i), label);
+            if (recipe == null) {
+                continue;
+            }
+            RecipeSchema.Violation violation = RecipeSchema.checkContent(recipe);
+            if (violation != null) {
+                countViolation(violation);
+                LOGGER.error("AI recipe for {} failed validation at {}", label, violation);
+                continue;
+            }
+
+            // Only a recipe named after a dish is used for it; order is not trusted, since a recipe
+            // given to the wrong dish would be cached and shown under that dish's name
+            int slot = matchDish(dishes, recipes, recipe.dishName);
+            if (slot < 0) {
+                LOGGER.warn("Discarding recipe {} from batch response: it matches no requested dish", recipe.dishName);
+                continue;
+            }
+            recipes[slot] = recipe;
+            validResponses.incrementAndGet();
+        }
+        return recipes;
+    }
+
+    /**
+     * Index of the first dish without a recipe yet whose normalized name equals dishName, or -1
+     */
+    private static int matchDish(List<DishRequest> dishes, RecipeData[] recipes, String dishName) {
+        String name = RecipeKey.of(dishName, "").getDishName();
+        for (int slot = 0; slot < recipes.length; slot++) {
+            if (recipes[slot] == null && RecipeKey.of(dishes.get(slot).dishName, "").getDishName().equals(name)) {
+                return slot;
+            }
+        }
+        return -1;
     }
 
     /**
      * Build prompt for Gemini API
+     * The static part is compiled once by PromptTemplate; only the dish name and category are added here
      */
-    private String buildPrompt(String dishName, String category) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("あなたはMinecraftの料理マイスターです。\n\n");
-        prompt.append("プレイヤーが「").append(dishName).append("」を作りたいと言っています。\n");
-        prompt.append("カテゴリ: ").append(category).append("\n\n");
-
-        prompt.append("以下の利用可能な材料とアイテムを使って、このレシピを考案してください:\n\n");
-        prompt.append("=== 基本原材料（本Mod） ===\n");
-        prompt.append("- customcookingmod:rice (米)\n");
-        prompt.append("- customcookingmod:salt (塩)\n");
-        prompt.append("- customcookingmod:mirin (みりん)\n");
-        prompt.append("- customcookingmod:cooking_sake (料理酒)\n");
-        prompt.append("- customcookingmod:miso (みそ)\n");
-        prompt.append("- customcookingmod:soy_sauce (醤油)\n");
-        prompt.append("- customcookingmod:cooking_oil (食用油)\n");
-        prompt.append("- customcookingmod:sesame_oil (ごま油)\n");
-        prompt.append("- customcookingmod:pepper (こしょう)\n");
-        prompt.append("- customcookingmod:potato_starch (片栗粉)\n\n");
-
-        prompt.append("=== KaleidoscopeCookeryの食材 ===\n");
-        prompt.append("- kaleidoscope_cookery:tomato (トマト)\n");
-        prompt.append("- kaleidoscope_cookery:lettuce (レタス)\n");
-        prompt.append("- kaleidoscope_cookery:chili (唐辛子)\n");
-        prompt.append("- kaleidoscope_cookery:rice (米)\n");
-        prompt.append("- kaleidoscope_cookery:raw_lamb_chops (生羊肉)\n");
-        prompt.append("- kaleidoscope_cookery:raw_pork_belly (豚バラ肉)\n");
-        prompt.append("- kaleidoscope_cookery:raw_cow_offal (牛内臓)\n");
-        prompt.append("- kaleidoscope_cookery:oil (油)\n\n");
-
-        prompt.append("=== バニラMinecraftの食材 ===\n");
-        prompt.append("- minecraft:wheat (小麦)\n");
-        prompt.append("- minecraft:sugar (砂糖)\n");
-        prompt.append("- minecraft:egg (卵)\n");
-        prompt.append("- minecraft:water_bucket (水)\n");
-        prompt.append("- minecraft:beef, pork, chicken, mutton (各種肉)\n");
-        prompt.append("- minecraft:potato, carrot, beetroot (各種野菜)\n\n");
-
-        prompt.append("=== 利用可能な調理法 ===\n");
-        prompt.append("【本Mod】\n");
-        prompt.append("1. IHヒーターで焼く (customcookingmod:ih_heater + customcookingmod:frying_pan)\n");
-        prompt.append("2. ボウルでかき混ぜる (customcookingmod:bowl + customcookingmod:spatula)\n");
-        prompt.append("3. オーブンにかける (customcookingmod:oven)\n");
-        prompt.append("4. ご飯を炊く (customcookingmod:rice_cooker)\n");
-        prompt.append("5. レンチン (customcookingmod:microwave)\n");
-        prompt.append("6. ホットプレートで焼く (customcookingmod:hot_plate)\n\n");
-
-        prompt.append("【KaleidoscopeCookery】\n");
-        prompt.append("7. ストーブで焼く (kaleidoscope_cookery:stove)\n");
-        prompt.append("8. 鍋でゆでる (kaleidoscope_cookery:pot)\n");
-        prompt.append("9. 大鍋で煮込む (kaleidoscope_cookery:stockpot)\n");
-        prompt.append("10. 蒸し器で蒸す (kaleidoscope_cookery:steamer)\n");
-        prompt.append("11. まな板で切る (kaleidoscope_cookery:chopping_board + kaleidoscope_cookery:kitchen_knife)\n");
-        prompt.append("12. 粉挽き機で挽く (kaleidoscope_cookery:millstone)\n\n");
-
-        prompt.append("以下のJSON形式で応答してください:\n\n");
-        prompt.append("重要なルール:\n");
-        prompt.append("1. レシピは100gあたりの分量で指定してください\n");
-        prompt.append("2. 材料は2種類の単位があります:\n");
-        prompt.append("   - amountType=\"grams\": 粉や液体など個数カウントできないもの（塩、醤油、小麦粉、水、油など）\n");
-        prompt.append("   - amountType=\"count\": 個数でカウントできる固形物（トマト、肉、卵、ニンジンなど）\n");
-        prompt.append("3. totalWeightGramsは100固定にしてください\n");
-        prompt.append("4. nutritionPer100gとsaturationPer100gには100gあたりの満腹度回復量を指定\n\n");
-        prompt.append("{\n");
-        prompt.append("  \"dishName\": \"" + dishName + "\",\n");
-        prompt.append("  \"totalWeightGrams\": 100,\n");
-        prompt.append("  \"ingredients\": [\n");
-        prompt.append("    {\"item\": \"minecraft:wheat\", \"amountType\": \"grams\", \"amount\": 30.0},\n");
-        prompt.append("    {\"item\": \"customcookingmod:salt\", \"amountType\": \"grams\", \"amount\": 0.5},\n");
-        prompt.append("    {\"item\": \"minecraft:egg\", \"amountType\": \"count\", \"amount\": 0.05},\n");
-        prompt.append("    {\"item\": \"kaleidoscope_cookery:tomato\", \"amountType\": \"count\", \"amount\": 0.1}\n");
-        prompt.append("  ],\n");
-        prompt.append("  \"steps\": [\n");
-        prompt.append("    {\"action\": \"mix_in_bowl\", \"description\": \"ボウルで小麦と塩を混ぜる\"},\n");
-        prompt.append("    {\"action\": \"cook_in_oven\", \"description\": \"オーブンで焼く\"}\n");
-        prompt.append("  ],\n");
-        prompt.append("  \"nutritionPer100g\": 2.5,\n");
-        prompt.append("  \"saturationPer100g\": 0.3,\n");
-        prompt.append("  \"expirationHours\": 48\n");
-        prompt.append("}\n\n");
-
-        prompt.append("IMPORTANT: JSONのみを返してください。説明文は不要です。");
-
-        return prompt.toString();
+    String buildPrompt(String dishName, String category) {
+        return PromptTemplate.get().render(dishName, category);
     }
 
     /**
      * Parse AI response into RecipeData
+     * The response is validated against RecipeSchema first; the first violation is logged and counted.
+     * Item ids and value ranges are not checked here (see RecipeSchema.checkContent)
      */
-    private RecipeData parseRecipeData(String aiResponse, String dishName) {
+    RecipeData parseRecipeData(String aiResponse, String dishName) {
+        JsonElement parsed;
         try {
-            // Extract JSON from response (remove markdown code blocks if present)
-            String jsonString = extractJSON(aiResponse);
-
-            JsonObject json = GSON.fromJson(jsonString, JsonObject.class);
-
-            RecipeData recipeData = new RecipeData();
-            recipeData.dishName = json.get("dishName").getAsString();
-            recipeData.totalWeightGrams = json.get("totalWeightGrams").getAsInt();
-            recipeData.nutritionPer100g = json.get("nutritionPer100g").getAsFloat();
-            recipeData.saturationPer100g = json.get("saturationPer100g").getAsFloat();
-            recipeData.expirationHours = json.get("expirationHours").getAsInt();
-
-            // Parse ingredients
-            JsonArray ingredientsJson = json.getAsJsonArray("ingredients");
-            recipeData.ingredients = new ArrayList<>();
-            for (int i = 0; i < ingredientsJson.size(); i++) {
-                JsonObject ingredient = ingredientsJson.get(i).getAsJsonObject();
-                String itemId = ingredient.get("item").getAsString();
-                String amountType = ingredient.get("amountType").getAsString();
-                float amount = ingredient.get("amount").getAsFloat();
-                recipeData.ingredients.add(new RecipeData.Ingredient(itemId, amountType, amount));
-            }
+            // Extract JSON from response (remove markdown code blocks and surrounding prose if present)
+            parsed = JsonParser.parseString(extractJSON(aiResponse));
+        } catch (JsonParseException e) {
+            malformedResponses.incrementAndGet();
+            LOGGER.error("AI response for {} is not valid JSON: {}", dishName, e.getMessage());
+            return null;
+        }
+        return toRecipeData(parsed, dishName);
+    }
 
-            // Parse cooking steps
-            JsonArray stepsJson = json.getAsJsonArray("steps");
-            recipeData.steps = new ArrayList<>();
-            for (int i = 0; i < stepsJson.size(); i++) {
-                JsonObject step = stepsJson.get(i).getAsJsonObject();
-                String action = step.get("action").getAsString();
-                String description = step.get("description").getAsString();
-                recipeData.steps.add(new RecipeData.CookingStep(action, description));
-            }
+    /**
+     * Validate one parsed recipe against RecipeSchema and convert it
+     *
+     * @return The recipe, or null if it failed validation
+     */
+    private RecipeData toRecipeData(JsonElement parsed, String dishName) {
+        RecipeSchema.Violation violation = RecipeSchema.validate(parsed);
+        if (violation != null) {
+            countViolation(violation);
+            LOGGER.error("AI response for {} failed validation at {}", dishName, violation);
+            return null;
+        }
 
-            LOGGER.info("Successfully parsed recipe data for: {}", dishName);
-            return recipeData;
+        JsonObject json = parsed.getAsJsonObject();
+        RecipeData recipeData = new RecipeData();
+        recipeData.dishName = json.get("dishName").getAsString();
+        recipeData.totalWeightGrams = json.get("totalWeightGrams").getAsInt();
+        recipeData.nutritionPer100g = json.get("nutritionPer100g").getAsFloat();
+        recipeData.saturationPer100g = json.get("saturationPer100g").getAsFloat();
+        recipeData.expirationHours = json.get("expirationHours").getAsInt();
 
-        } catch (Exception e) {
-            LOGGER.error("Failed to parse recipe data from AI response", e);
-            return null;
+        // Parse ingredients
+        JsonArray ingredientsJson = json.getAsJsonArray("ingredients");
+        recipeData.ingredients = new ArrayList<>(ingredientsJson.size());
+        for (int i = 0; i < ingredientsJson.size(); i++) {
+            JsonObject ingredient = ingredientsJson.get(i).getAsJsonObject();
+            String itemId = ingredient.get("item").getAsString();
+            String amountType = ingredient.get("amountType").getAsString();
+            float amount = ingredient.get("amount").getAsFloat();
+            recipeData.ingredients.add(new RecipeData.Ingredient(itemId, amountType, amount));
+        }
+
+        // Parse cooking steps
+        JsonArray stepsJson = json.getAsJsonArray("steps");
+        recipeData.steps = new ArrayList<>(stepsJson.size());
+        for (int i = 0; i < stepsJson.size(); i++) {
+            JsonObject step = stepsJson.get(i).getAsJsonObject();
+            String action = step.get("action").getAsString();
+            String description = step.get("description").getAsString();
+            recipeData.steps.add(new RecipeData.CookingStep(action, description));
         }
+
+        LOGGER.info("Successfully parsed recipe data for: {}", dishName);
+        return recipeData;
+    }
+
+    private void countViolation(RecipeSchema.Violation violation) {
+        invalidResponses.incrementAndGet();
+        violationsByField.computeIfAbsent(violation.getField(), field -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Extract JSON from AI response (handles markdown code blocks and prose around the object)
+     */
+    String extractJSON(String response) {
+        String cleaned = stripFence(response);
+
+        // Keep only the root object if the model wrote text before or after it
+        int start = cleaned.indexOf('{');
+        int end = cleaned.lastIndexOf('}');
+        if (start >= 0 && end > start) {
+            cleaned = cleaned.substring(start, end + 1);
+        }
+        return cleaned;
     }
 
     /**
-     * Extract JSON from AI response (handles markdown code blocks)
+     * Extract the root JSON array from a batched AI response
+     * If the response starts with an object instead, that object is extracted as for a single recipe
      */
-    private String extractJSON(String response) {
-        // Remove markdown code blocks if present
+    String extractJSONArray(String response) {
+        String cleaned = stripFence(response);
+        int start = cleaned.indexOf('[');
+        int objectStart = cleaned.indexOf('{');
+        int end = cleaned.lastIndexOf(']');
+        if (start >= 0 && (objectStart < 0 || start < objectStart) && end > start) {
+            return cleaned.substring(start, end + 1);
+        }
+        return extractJSON(cleaned);
+    }
+
+    /**
+     * Remove a markdown code block around the response if present
+     */
+    private static String stripFence(String response) {
         String cleaned = response.trim();
         if (cleaned.startsWith("```json")) {
             cleaned = cleaned.substring(7);
@@ -195,10 +402,72 @@ public class RecipeGenerator {
         if (cleaned.endsWith("```")) {
             cleaned = cleaned.substring(0, cleaned.length() - 3);
         }
-
         return cleaned.trim();
     }
 
+    /**
+     * Number of recipe generations (each may call several cascade tiers)
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Number of responses that were parsed into a recipe and passed validation
+     */
+    public long getValidResponseCount() {
+        return validResponses.get();
+    }
+
+    /**
+     * Number of backend calls that produced no response at all
+     */
+    public long getEmptyResponseCount() {
+        return emptyResponses.get();
+    }
+
+    public long getMalformedResponseCount() {
+        return malformedResponses.get();
+    }
+
+    public long getInvalidResponseCount() {
+        return invalidResponses.get();
+    }
+
+    /**
+     * Number of batched backend calls
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Number of dishes requested through batched calls
+     */
+    public long getBatchedDishCount() {
+        return batchedDishes.get();
+    }
+
+    /**
+     * Number of batched dishes without a valid recipe in the batch response, generated individually instead
+     */
+    public long getBatchFallbackCount() {
+        return batchFallbacks.get();
+    }
+
+    public ModelCascade getCascade() {
+        return cascade;
+    }
+
+    /**
+     * Schema violations counted per field (array indices removed)
+     */
+    public Map<String, Long> getViolationsByField() {
+        Map<String, Long> counts = new TreeMap<>();
+        violationsByField.forEach((field, count) -> counts.put(field, count.get()));
+        return counts;
+    }
+
     /**
      * Data class for recipe information
      * Uses weight-based system with nutrition per 100g
@@ -212,6 +481,28 @@ public class RecipeGenerator {
         public float saturationPer100g;  // Saturation value per 100g
         public int expirationHours;
 
+        // Lazily computed content hash; transient so Gson neither writes nor reads it
+        private transient long contentHash;
+        private transient boolean contentHashComputed;
+
+        /**
+         * 64-bit content hash of this recipe (first 8 bytes of SHA-256 over its JSON form)
+         * Identifies the recipe in client catalogs; computed once, so the recipe must not be modified afterwards
+         */
+        public long contentHash() {
+            if (!contentHashComputed) {
+                try {
+                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                    byte[] hash = digest.digest(GSON.toJson(this).getBytes(StandardCharsets.UTF_8));
+                    contentHash = ByteBuffer.wrap(hash).getLong();
+                    contentHashComputed = true;
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 not available", e);
+                }
+            }
+            return contentHash;
+        }
+
         public static class Ingredient {
             public String itemId;
             public String amountType;  // "grams" for seasonings/powders, "count" for solid items
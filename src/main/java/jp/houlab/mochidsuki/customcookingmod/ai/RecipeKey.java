@@ -0,0 +1,81 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Normalized identity of a recipe request
+ * Dish name and category are NFKC-normalized, trimmed and case-folded so that
+ * "カレーライス", "ｶﾚｰﾗｲｽ " and "Donburi"/"donburi" map to the same key
+ */
+public final class RecipeKey {
+    private final String dishName;
+    private final String category;
+
+    private RecipeKey(String dishName, String category) {
+        this.dishName = dishName;
+        this.category = category;
+    }
+
+    /**
+     * Create a normalized key from raw player input
+     */
+    public static RecipeKey of(String dishName, String category) {
+        return new RecipeKey(normalize(dishName), normalize(category));
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFKC).trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String getDishName() {
+        return dishName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * SHA-256 of the normalized key, used as the on-disk file name
+     */
+    public String contentHash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(dishName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(category.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RecipeKey other)) {
+            return false;
+        }
+        return dishName.equals(other.dishName) && category.equals(other.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * dishName.hashCode() + category.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return dishName + " (" + category + ")";
+    }
+}
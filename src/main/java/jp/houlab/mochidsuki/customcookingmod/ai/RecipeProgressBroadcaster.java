@@ -0,0 +1,51 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fans streamed recipe progress out to every requester sharing one generation
+ * Listeners that subscribe late are replayed everything emitted so far
+ */
+public class RecipeProgressBroadcaster implements RecipeStreamListener {
+    private final List<Consumer<RecipeStreamListener>> history = new ArrayList<>();
+    private final List<RecipeStreamListener> listeners = new ArrayList<>();
+
+    /**
+     * Add a listener and replay the progress emitted so far
+     */
+    public synchronized void subscribe(RecipeStreamListener listener) {
+        for (Consumer<RecipeStreamListener> event : history) {
+            event.accept(listener);
+        }
+        listeners.add(listener);
+    }
+
+    private synchronized void publish(Consumer<RecipeStreamListener> event) {
+        history.add(event);
+        for (RecipeStreamListener listener : listeners) {
+            event.accept(listener);
+        }
+    }
+
+    @Override
+    public void onDishName(String dishName) {
+        publish(listener -> listener.onDishName(dishName));
+    }
+
+    @Override
+    public void onNutritionPer100g(float nutritionPer100g) {
+        publish(listener -> listener.onNutritionPer100g(nutritionPer100g));
+    }
+
+    @Override
+    public void onSaturationPer100g(float saturationPer100g) {
+        publish(listener -> listener.onSaturationPer100g(saturationPer100g));
+    }
+
+    @Override
+    public void onIngredient(RecipeGenerator.RecipeData.Ingredient ingredient) {
+        publish(listener -> listener.onIngredient(ingredient));
+    }
+}
@@ -0,0 +1,277 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recipe Schema
+ * Schema of the recipe JSON the model returns. It mirrors RecipeData, using the field names from the prompt.
+ * The same schema is sent to Gemini as responseSchema (structured output) and used to validate
+ * responses locally before they are converted, so a bad response names the field that failed.
+ * checkContent adds what a schema cannot express: registered item ids and plausible value ranges.
+ */
+public final class RecipeSchema {
+    private static final JsonObject SCHEMA = object(
+            Map.of(
+                    "dishName", string(),
+                    "totalWeightGrams", integer(1),
+                    "ingredients", array(object(
+                            Map.of(
+                                    "item", string(),
+                                    "amountType", enumeration("grams", "count"),
+                                    "amount", number(0)
+                            ),
+                            List.of("item", "amountType", "amount")
+                    )),
+                    "steps", array(object(
+                            Map.of(
+                                    "action", string(),
+                                    "description", string()
+                            ),
+                            List.of("action", "description")
+                    )),
+                    "nutritionPer100g", number(0),
+                    "saturationPer100g", number(0),
+                    "expirationHours", integer(1)
+            ),
+            List.of("dishName", "totalWeightGrams", "ingredients", "steps",
+                    "nutritionPer100g", "saturationPer100g", "expirationHours")
+    );
+
+    // Plausible ranges for a converted recipe
+    private static final float MAX_NUTRITION_PER_100G = 20.0f;   // A full hunger bar
+    private static final float MAX_SATURATION_PER_100G = 20.0f;
+    private static final int MAX_TOTAL_WEIGHT_GRAMS = 10000;
+    private static final int MAX_EXPIRATION_HOURS = 24 * 365;
+    private static final float MAX_INGREDIENT_GRAMS = 5000.0f;
+    private static final float MAX_INGREDIENT_COUNT = 64.0f;
+
+    private RecipeSchema() {
+    }
+
+    /**
+     * Schema in Gemini responseSchema form (shared instance; do not modify)
+     */
+    static JsonObject responseSchema() {
+        return SCHEMA;
+    }
+
+    /**
+     * Schema of a batched response: an array of exactly count recipes, in order
+     */
+    static JsonObject batchResponseSchema(int count) {
+        JsonObject schema = array(SCHEMA);
+        schema.addProperty("minItems", count);
+        schema.addProperty("maxItems", count);
+        return schema;
+    }
+
+    /**
+     * First schema violation in a parsed response
+     */
+    public static class Violation {
+        private final String path;    // e.g. ingredients[2].amount
+        private final String reason;
+
+        Violation(String path, String reason) {
+            this.path = path;
+            this.reason = reason;
+        }
+
+        /**
+         * Field path without array indices (e.g. ingredients[].amount), for aggregating statistics
+         */
+        public String getField() {
+            return path.replaceAll("\\[\\d+]", "[]");
+        }
+
+        @Override
+        public String toString() {
+            return (path.isEmpty() ? "<root>" : path) + ": " + reason;
+        }
+    }
+
+    /**
+     * Validate a parsed response against the schema
+     *
+     * @return The first violation, or null if the response is valid
+     */
+    public static Violation validate(JsonElement response) {
+        return validate(SCHEMA, response, "");
+    }
+
+    /**
+     * Check a converted recipe for unknown items and implausible values
+     *
+     * @return The first violation, or null if the recipe is plausible
+     */
+    public static Violation checkContent(RecipeGenerator.RecipeData recipe) {
+        if (recipe.nutritionPer100g <= 0 || recipe.nutritionPer100g > MAX_NUTRITION_PER_100G) {
+            return new Violation("nutritionPer100g", "out of range (" + recipe.nutritionPer100g + ")");
+        }
+        if (recipe.saturationPer100g > MAX_SATURATION_PER_100G) {
+            return new Violation("saturationPer100g", "out of range (" + recipe.saturationPer100g + ")");
+        }
+        if (recipe.totalWeightGrams > MAX_TOTAL_WEIGHT_GRAMS) {
+            return new Violation("totalWeightGrams", "out of range (" + recipe.totalWeightGrams + ")");
+        }
+        if (recipe.expirationHours > MAX_EXPIRATION_HOURS) {
+            return new Violation("expirationHours", "out of range (" + recipe.expirationHours + ")");
+        }
+        for (int i = 0; i < recipe.ingredients.size(); i++) {
+            RecipeGenerator.RecipeData.Ingredient ingredient = recipe.ingredients.get(i);
+            ResourceLocation id = ResourceLocation.tryParse(ingredient.itemId);
+            if (id == null || !ForgeRegistries.ITEMS.containsKey(id)) {
+                return new Violation("ingredients[" + i + "].item", "unknown item \"" + ingredient.itemId + "\"");
+            }
+            float max = "grams".equals(ingredient.amountType) ? MAX_INGREDIENT_GRAMS : MAX_INGREDIENT_COUNT;
+            if (ingredient.amount <= 0 || ingredient.amount > max) {
+                return new Violation("ingredients[" + i + "].amount", "out of range (" + ingredient.amount + ")");
+            }
+        }
+        return null;
+    }
+
+    private static Violation validate(JsonObject schema, JsonElement value, String path) {
+        String type = schema.get("type").getAsString();
+        switch (type) {
+            case "OBJECT" -> {
+                if (!value.isJsonObject()) {
+                    return new Violation(path, "expected object");
+                }
+                JsonObject object = value.getAsJsonObject();
+                for (JsonElement required : schema.getAsJsonArray("required")) {
+                    JsonElement field = object.get(required.getAsString());
+                    if (field == null || field.isJsonNull()) {
+                        return new Violation(child(path, required.getAsString()), "missing");
+                    }
+                }
+                for (Map.Entry<String, JsonElement> property : schema.getAsJsonObject("properties").entrySet()) {
+                    JsonElement field = object.get(property.getKey());
+                    if (field != null && !field.isJsonNull()) {
+                        Violation violation = validate(property.getValue().getAsJsonObject(), field, child(path, property.getKey()));
+                        if (violation != null) {
+                            return violation;
+                        }
+                    }
+                }
+                return null;
+            }
+            case "ARRAY" -> {
+                if (!value.isJsonArray()) {
+                    return new Violation(path, "expected array");
+                }
+                JsonArray array = value.getAsJsonArray();
+                if (array.size() < schema.get("minItems").getAsInt()) {
+                    return new Violation(path, "empty");
+                }
+                JsonObject items = schema.getAsJsonObject("items");
+                for (int i = 0; i < array.size(); i++) {
+                    Violation violation = validate(items, array.get(i), path + "[" + i + "]");
+                    if (violation != null) {
+                        return violation;
+                    }
+                }
+                return null;
+            }
+            case "STRING" -> {
+                if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+                    return new Violation(path, "expected string");
+                }
+                String text = value.getAsString();
+                if (text.isBlank()) {
+                    return new Violation(path, "blank");
+                }
+                if (schema.has("enum") && !schema.getAsJsonArray("enum").contains(new JsonPrimitive(text))) {
+                    return new Violation(path, "unexpected value \"" + text + "\"");
+                }
+                return null;
+            }
+            case "INTEGER", "NUMBER" -> {
+                if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+                    return new Violation(path, "expected " + type.toLowerCase());
+                }
+                double number = value.getAsDouble();
+                if (!Double.isFinite(number)) {
+                    return new Violation(path, "not finite");
+                }
+                if ("INTEGER".equals(type) && number != Math.rint(number)) {
+                    return new Violation(path, "expected integer");
+                }
+                if (number < schema.get("minimum").getAsDouble()) {
+                    return new Violation(path, "below minimum " + schema.get("minimum").getAsNumber());
+                }
+                return null;
+            }
+            default -> throw new IllegalStateException("Unknown schema type: " + type);
+        }
+    }
+
+    private static String child(String path, String field) {
+        return path.isEmpty() ? field : path + "." + field;
+    }
+
+    private static JsonObject object(Map<String, JsonObject> properties, List<String> required) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "OBJECT");
+        JsonObject propertiesJson = new JsonObject();
+        JsonArray requiredJson = new JsonArray();
+        JsonArray ordering = new JsonArray();
+        // Properties in the order of the required list, so the model writes them in prompt order
+        for (String name : required) {
+            propertiesJson.add(name, properties.get(name));
+            requiredJson.add(name);
+            ordering.add(name);
+        }
+        schema.add("properties", propertiesJson);
+        schema.add("required", requiredJson);
+        schema.add("propertyOrdering", ordering);
+        return schema;
+    }
+
+    private static JsonObject array(JsonObject items) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "ARRAY");
+        schema.add("items", items);
+        schema.addProperty("minItems", 1);
+        return schema;
+    }
+
+    private static JsonObject string() {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "STRING");
+        return schema;
+    }
+
+    private static JsonObject enumeration(String... values) {
+        JsonObject schema = string();
+        schema.addProperty("format", "enum");
+        JsonArray valuesJson = new JsonArray();
+        for (String value : values) {
+            valuesJson.add(value);
+        }
+        schema.add("enum", valuesJson);
+        return schema;
+    }
+
+    private static JsonObject integer(int minimum) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "INTEGER");
+        schema.addProperty("minimum", minimum);
+        return schema;
+    }
+
+    private static JsonObject number(double minimum) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "NUMBER");
+        schema.addProperty("minimum", minimum);
+        return schema;
+    }
+}
@@ -0,0 +1,22 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+/**
+ * Receives parts of a recipe as soon as they are available in a streamed AI response
+ * Callbacks are invoked on the HTTP client thread
+ */
+public interface RecipeStreamListener {
+    RecipeStreamListener NONE = new RecipeStreamListener() {
+    };
+
+    default void onDishName(String dishName) {
+    }
+
+    default void onNutritionPer100g(float nutritionPer100g) {
+    }
+
+    default void onSaturationPer100g(float saturationPer100g) {
+    }
+
+    default void onIngredient(RecipeGenerator.RecipeData.Ingredient ingredient) {
+    }
+}
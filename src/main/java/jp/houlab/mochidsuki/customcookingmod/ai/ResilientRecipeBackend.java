@@ -0,0 +1,315 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Resilient Recipe Backend
+ * Decorates a backend with retries (exponential backoff with full jitter, honoring Retry-After),
+ * optional hedged requests once a call runs past the observed p95 latency, and a circuit breaker
+ * that fails fast while the backend keeps failing.
+ * Streaming calls are retried only if no text was emitted yet, and are never hedged.
+ * Batch calls are retried but never hedged, since a duplicate would cost a whole batch.
+ */
+public class ResilientRecipeBackend implements RecipeBackend {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final RecipeBackend delegate;
+    private final Policy policy;
+    private final CircuitBreaker breaker;
+    private final ScheduledExecutorService scheduler;
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW);
+
+    // Statistics
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    /**
+     * Retry, hedging and circuit breaker settings
+     */
+    public static class Policy {
+        final int maxAttempts;              // Including the first attempt
+        final long retryBaseDelayMillis;    // Backoff before the first retry; doubled per attempt
+        final long retryMaxDelayMillis;     // Backoff cap; a longer Retry-After gives up instead
+        final boolean hedging;
+        final long hedgeMinDelayMillis;     // Never hedge earlier than this, even if p95 is lower
+        final int circuitFailureThreshold;
+        final long circuitOpenMillis;
+
+        public Policy(int maxAttempts, long retryBaseDelayMillis, long retryMaxDelayMillis, boolean hedging,
+                      long hedgeMinDelayMillis, int circuitFailureThreshold, long circuitOpenMillis) {
+            this.maxAttempts = maxAttempts;
+            this.retryBaseDelayMillis = retryBaseDelayMillis;
+            this.retryMaxDelayMillis = retryMaxDelayMillis;
+            this.hedging = hedging;
+            this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+            this.circuitFailureThreshold = circuitFailureThreshold;
+            this.circuitOpenMillis = circuitOpenMillis;
+        }
+    }
+
+    /**
+     * Thrown (as the failure of the returned future) while the circuit is open
+     */
+    public static class CircuitOpenException extends RecipeBackendException {
+        public CircuitOpenException(String backend) {
+            super(backend + " backend is unavailable (circuit open)", 503, -1);
+        }
+
+        @Override
+        public boolean isRetryable() {
+            return false;
+        }
+    }
+
+    public ResilientRecipeBackend(RecipeBackend delegate, Policy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.breaker = new CircuitBreaker(delegate.getName(), policy.circuitFailureThreshold, policy.circuitOpenMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomCooking-BackendRetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> generateRecipe(String prompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attempt(() -> hedged(prompt), () -> true, true, result, 1);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<String> generateRecipeStreaming(String prompt, Consumer<String> onText) {
+        AtomicBoolean emitted = new AtomicBoolean();
+        Consumer<String> tracking = text -> {
+            emitted.set(true);
+            onText.accept(text);
+        };
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attempt(() -> delegate.generateRecipeStreaming(prompt, tracking), () -> !emitted.get(), true, result, 1);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<String> generateRecipeBatch(String prompt, int count) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // A batch takes longer than one recipe, so its latency would skew the hedge delay
+        attempt(() -> delegate.generateRecipeBatch(prompt, count), () -> true, false, result, 1);
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        delegate.close();
+    }
+
+    @Override
+    public <T extends RecipeBackend> T unwrap(Class<T> type) {
+        return type.isInstance(this) ? type.cast(this) : delegate.unwrap(type);
+    }
+
+    /**
+     * Run one attempt and schedule the next one if it fails with a retryable error
+     *
+     * @param retryAllowed  Checked before retrying (streaming cannot retry after emitting text)
+     * @param recordLatency Whether a successful call's latency counts towards the hedge delay
+     */
+    private void attempt(Supplier<CompletableFuture<String>> call, BooleanSupplier retryAllowed, boolean recordLatency,
+                         CompletableFuture<String> result, int attempt) {
+        if (!breaker.tryAcquire()) {
+            failures.incrementAndGet();
+            result.completeExceptionally(new CircuitOpenException(delegate.getName()));
+            return;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<String> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((text, throwable) -> {
+            if (throwable == null) {
+                breaker.onSuccess();
+                if (recordLatency) {
+                    latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                successes.incrementAndGet();
+                result.complete(text);
+                return;
+            }
+
+            RecipeBackendException failure = RecipeBackendException.of(throwable);
+            if (failure.isLocal()) {
+                // Never reached the backend (e.g. local key quota)
+                breaker.onIgnored();
+            } else if (failure.isRetryable()) {
+                breaker.onFailure();
+            } else {
+                // The backend answered; the request itself was bad
+                breaker.onSuccess();
+            }
+
+            long delay = retryDelay(failure, attempt);
+            if (delay < 0 || !retryAllowed.getAsBoolean()) {
+                failures.incrementAndGet();
+                result.completeExceptionally(failure);
+                return;
+            }
+            retries.incrementAndGet();
+            LOGGER.warn("{} backend call failed ({}), retry {}/{} in {} ms",
+                    delegate.getName(), failure.getMessage(), attempt, policy.maxAttempts - 1, delay);
+            try {
+                scheduler.schedule(() -> attempt(call, retryAllowed, recordLatency, result, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // Scheduler shut down with the server
+                failures.incrementAndGet();
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    /**
+     * Delay before the next attempt, or -1 to give up
+     * Full jitter over an exponentially growing window; a Retry-After hint is a lower bound,
+     * and one longer than the maximum delay ends the retries
+     */
+    private long retryDelay(RecipeBackendException failure, int attempt) {
+        if (!failure.isRetryable() || attempt >= policy.maxAttempts) {
+            return -1;
+        }
+        long window = Math.min(policy.retryMaxDelayMillis, policy.retryBaseDelayMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(window + 1);
+        long retryAfter = failure.getRetryAfterMillis();
+        if (retryAfter > policy.retryMaxDelayMillis) {
+            return -1;
+        }
+        return Math.max(delay, retryAfter);
+    }
+
+    /**
+     * Send the request, and a second identical one if the first has not answered by the hedge delay
+     * The first successful response wins and the other request is cancelled; the call fails only when both fail
+     */
+    private CompletableFuture<String> hedged(String prompt) {
+        CompletableFuture<String> primary = delegate.generateRecipe(prompt);
+        long hedgeDelay = hedgeDelayMillis();
+        if (hedgeDelay < 0) {
+            return primary;
+        }
+
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        primary.whenComplete((text, throwable) -> settle(first, outstanding, text, throwable, false));
+
+        AtomicReference<CompletableFuture<String>> hedge = new AtomicReference<>();
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (first.isDone()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            hedgesSent.incrementAndGet();
+            CompletableFuture<String> second = delegate.generateRecipe(prompt);
+            hedge.set(second);
+            second.whenComplete((text, throwable) -> settle(first, outstanding, text, throwable, true));
+            if (first.isDone()) {
+                second.cancel(true);
+            }
+        }, hedgeDelay, TimeUnit.MILLISECONDS);
+        first.whenComplete((text, throwable) -> {
+            // Cancel the loser so it frees its concurrency slot and, if it has not started yet, its key quota
+            timer.cancel(false);
+            primary.cancel(true);
+            CompletableFuture<String> second = hedge.get();
+            if (second != null) {
+                second.cancel(true);
+            }
+        });
+        return first;
+    }
+
+    private void settle(CompletableFuture<String> first, AtomicInteger outstanding, String text, Throwable throwable, boolean hedge) {
+        if (throwable == null) {
+            if (first.complete(text) && hedge) {
+                hedgesWon.incrementAndGet();
+            }
+        } else if (outstanding.decrementAndGet() == 0) {
+            first.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * p95 of recent successful calls (at least the configured minimum), or -1 if hedging is off or there is too little data
+     */
+    private long hedgeDelayMillis() {
+        if (!policy.hedging) {
+            return -1;
+        }
+        long p95 = latencies.percentile(0.95, MIN_LATENCY_SAMPLES);
+        return p95 < 0 ? -1 : Math.max(policy.hedgeMinDelayMillis, p95);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    public long getSuccessCount() {
+        return successes.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * Current hedge delay in milliseconds, or -1 when no hedge would be sent
+     */
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis();
+    }
+}
@@ -0,0 +1,80 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.Config;
+import org.slf4j.Logger;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared HTTP Client
+ * One long-lived HTTP/2 client per server, used by every model backend. Generation requests
+ * reuse its pooled keep-alive connections instead of paying a new TCP+TLS handshake and
+ * selector thread each time.
+ * Started when the server starts and shut down when it stops.
+ */
+public final class SharedHttpClient {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static HttpClient client;
+    private static ExecutorService executor;
+
+    private SharedHttpClient() {
+    }
+
+    /**
+     * Create the client (called when the server starts)
+     */
+    public static synchronized void start() {
+        if (client != null) {
+            return;
+        }
+        executor = Executors.newCachedThreadPool(new HttpThreadFactory());
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(Config.geminiTimeoutSeconds))
+                .executor(executor)
+                .build();
+        LOGGER.info("Shared HTTP client started");
+    }
+
+    /**
+     * Get the client, creating it if the server has not started it (e.g. in benchmarks)
+     */
+    public static synchronized HttpClient get() {
+        if (client == null) {
+            start();
+        }
+        return client;
+    }
+
+    /**
+     * Shut the client down (called when the server stops, after the backends are closed)
+     * Its connections are closed once the client is no longer referenced
+     */
+    public static synchronized void stop() {
+        if (client == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor = null;
+        client = null;
+        LOGGER.info("Shared HTTP client stopped");
+    }
+
+    private static class HttpThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CustomCooking-Http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight request coalescing
+ * Concurrent calls with the same key share one in-flight future instead of each starting their own work.
+ * Once the shared future completes the key is released, so later calls start a fresh flight.
+ *
+ * @param <K> Key type (must implement equals/hashCode)
+ * @param <V> Result type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * One in-flight call and the state created for it
+     */
+    private static class Flight<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final Object state;
+
+        Flight(Object state) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * Join the in-flight call for this key, or start one with the given loader
+     * Callers must only attach callbacks to the returned future, never complete or cancel it
+     *
+     * @param key    Request key
+     * @param loader Starts the work; only invoked by the first caller for a key
+     * @return Future shared by every caller for the same key
+     * @throws RuntimeException whatever the loader throws when starting the work
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        return execute(key, () -> null, state -> {
+        }, state -> loader.get());
+    }
+
+    /**
+     * Join the in-flight call for this key, or start one that carries per-flight state (e.g. a progress broadcaster)
+     * The state is created once per flight and handed to every caller of that flight, including the one starting it,
+     * so a caller never sees the state of another flight for the same key
+     *
+     * @param key      Request key
+     * @param newState Creates the state of a new flight
+     * @param onJoin   Receives the state of the flight the caller joined or started, before the flight is started
+     * @param loader   Starts the work with the flight's state; only invoked by the first caller for a key
+     * @return Future shared by every caller for the same key
+     * @throws RuntimeException whatever the loader throws when starting the work
+     */
+    @SuppressWarnings("unchecked")
+    public <S> CompletableFuture<V> execute(K key, Supplier<S> newState, Consumer<S> onJoin,
+                                            Function<S, CompletableFuture<V>> loader) {
+        Flight<V> existing = inFlight.get(key);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            onJoin.accept((S) existing.state);
+            return existing.future;
+        }
+
+        S state = newState.get();
+        Flight<V> flight = new Flight<>(state);
+        existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            onJoin.accept((S) existing.state);
+            return existing.future;
+        }
+        onJoin.accept(state);
+
+        CompletableFuture<V> source;
+        try {
+            source = loader.apply(state);
+        } catch (RuntimeException e) {
+            // Release the key and fail anyone who joined in the meantime
+            inFlight.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+
+        source.whenComplete((value, throwable) -> {
+            inFlight.remove(key, flight);
+            if (throwable != null) {
+                flight.future.completeExceptionally(throwable);
+            } else {
+                flight.future.complete(value);
+            }
+        });
+        return flight.future;
+    }
+
+    /**
+     * Number of keys currently in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Number of calls that joined an existing flight instead of starting one
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
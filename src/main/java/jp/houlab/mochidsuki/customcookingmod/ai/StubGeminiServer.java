@@ -0,0 +1,531 @@
+package jp.houlab.mochidsuki.customcookingmod.ai;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local Gemini stub server for offline load testing
+ * Speaks the generateContent / streamGenerateContent HTTP protocol on the loopback interface and
+ * replays recorded Gemini responses with a configurable latency and error distribution,
+ * so the full generation pipeline can be exercised without spending API quota.
+ * The cachedContents API is emulated in memory so context caching can be tested offline.
+ */
+public class StubGeminiServer {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final int STREAM_CHUNK_CHARS = 48;
+    private static final Pattern BATCH_DISH = Pattern.compile("(?m)^\\d+\\. 「(.+)」 \\(カテゴリ: ");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<String> recordedTexts;
+    private final Settings settings;
+    private final Random random;
+
+    // Statistics
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong cachedContentRequests = new AtomicLong();
+
+    // Emulated cachedContents resources by name
+    private final ConcurrentHashMap<String, CachedContent> cachedContents = new ConcurrentHashMap<>();
+    private final AtomicInteger cachedContentIds = new AtomicInteger();
+
+    /**
+     * Latency and error distribution of the stub
+     */
+    public static class Settings {
+        final int latencyMillis;        // Mean response latency
+        final int latencyJitterMillis;  // Uniform jitter added to or subtracted from the mean
+        final double rateLimitRate;     // Fraction of requests answered with 429
+        final double serverErrorRate;   // Fraction of requests answered with 503
+        final long seed;                // Same seed, same latency/error sequence
+
+        public Settings(int latencyMillis, int latencyJitterMillis, double rateLimitRate, double serverErrorRate, long seed) {
+            this.latencyMillis = latencyMillis;
+            this.latencyJitterMillis = latencyJitterMillis;
+            this.rateLimitRate = rateLimitRate;
+            this.serverErrorRate = serverErrorRate;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Emulated cachedContents resource
+     */
+    private static class CachedContent {
+        final String model;
+        final String text;
+        final long expiresAt;
+
+        CachedContent(String model, String text, long expiresAt) {
+            this.model = model;
+            this.text = text;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private StubGeminiServer(HttpServer server, List<String> recordedTexts, Settings settings) {
+        this.server = server;
+        this.recordedTexts = recordedTexts;
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+        this.executor = Executors.newCachedThreadPool(new StubThreadFactory());
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start a stub server on an ephemeral loopback port
+     *
+     * @param recordingsDirectory Directory of recorded Gemini response bodies (*.json); may be missing
+     */
+    public static StubGeminiServer start(Path recordingsDirectory, Settings settings) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        StubGeminiServer stub = new StubGeminiServer(httpServer, loadRecordings(recordingsDirectory), settings);
+        httpServer.start();
+        LOGGER.info("Gemini stub server listening on {} with {} recorded responses",
+                stub.getBaseUrl(), stub.recordedTexts.size());
+        return stub;
+    }
+
+    /**
+     * Stop the server and its worker threads
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        LOGGER.info("Gemini stub server stopped ({} requests, {} injected errors, {} using cached content)",
+                requests.get(), injectedErrors.get(), cachedContentRequests.get());
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * generateContent endpoint URL for the given model name
+     */
+    public String getEndpoint(String model) {
+        return getBaseUrl() + "/v1beta/models/" + model + ":generateContent";
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Number of generation requests that referenced a cached content
+     */
+    public long getCachedContentRequestCount() {
+        return cachedContentRequests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (path.contains("/cachedContents")) {
+                handleCachedContents(exchange, path, requestBody);
+                return;
+            }
+            if ("GET".equals(exchange.getRequestMethod()) && path.contains("/models/") && path.indexOf(':') < 0) {
+                // Model lookup, used by clients to warm up their connection
+                JsonObject model = new JsonObject();
+                model.addProperty("name", path.substring(path.indexOf("models/")));
+                sendJson(exchange, 200, GSON.toJson(model));
+                return;
+            }
+            requests.incrementAndGet();
+
+            // Like the real API, an unknown or expired cache is rejected before generation starts
+            JsonObject request = parseRequest(requestBody);
+            String cacheName = request != null && request.has("cachedContent") ? request.get("cachedContent").getAsString() : null;
+            if (cacheName != null) {
+                CachedContent cached = cachedContents.get(cacheName);
+                if (cached == null || cached.isExpired()) {
+                    sendJson(exchange, 404, errorBody(404, "NOT_FOUND"));
+                    return;
+                }
+                cachedContentRequests.incrementAndGet();
+            }
+
+            // Draw latency and outcome under one lock so a given seed always yields the same sequence
+            long latency;
+            double roll;
+            synchronized (random) {
+                int jitter = settings.latencyJitterMillis > 0
+                        ? random.nextInt(settings.latencyJitterMillis * 2 + 1) - settings.latencyJitterMillis
+                        : 0;
+                latency = Math.max(0, settings.latencyMillis + jitter);
+                roll = random.nextDouble();
+            }
+            sleep(latency);
+
+            if (roll < settings.rateLimitRate) {
+                injectedErrors.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                sendJson(exchange, 429, errorBody(429, "RESOURCE_EXHAUSTED"));
+                return;
+            }
+            if (roll < settings.rateLimitRate + settings.serverErrorRate) {
+                injectedErrors.incrementAndGet();
+                sendJson(exchange, 503, errorBody(503, "UNAVAILABLE"));
+                return;
+            }
+
+            String text;
+            int batchSize = requestedBatchSize(request);
+            if (batchSize > 0) {
+                // A batched request gets one recording per element, as a bare JSON array,
+                // named after the ordered dishes like a real model would
+                List<String> dishNames = orderedDishNames(requestBody);
+                JsonArray recipes = new JsonArray();
+                for (int i = 0; i < batchSize; i++) {
+                    String recording = stripFence(selectRecording(requestBody + i));
+                    try {
+                        JsonElement recipe = JsonParser.parseString(recording);
+                        if (recipe.isJsonObject() && i < dishNames.size()) {
+                            recipe.getAsJsonObject().addProperty("dishName", dishNames.get(i));
+                        }
+                        recipes.add(recipe);
+                    } catch (JsonParseException e) {
+                        // Keep the element so the client sees one malformed recipe, not a malformed batch
+                        recipes.add(recording);
+                    }
+                }
+                text = GSON.toJson(recipes);
+            } else {
+                text = selectRecording(requestBody);
+                if (requestsJsonOutput(request)) {
+                    // Structured output never wraps the JSON in a markdown fence
+                    text = stripFence(text);
+                }
+            }
+            if (path.endsWith(":streamGenerateContent")) {
+                sendStream(exchange, text);
+            } else if (path.endsWith(":generateContent")) {
+                sendJson(exchange, 200, GSON.toJson(candidateBody(text)));
+            } else {
+                sendJson(exchange, 404, errorBody(404, "NOT_FOUND"));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Create, extend, read and delete emulated cachedContents resources
+     */
+    private void handleCachedContents(HttpExchange exchange, String path, String requestBody) throws IOException {
+        String method = exchange.getRequestMethod();
+        int index = path.indexOf("cachedContents/");
+        if (index < 0) {
+            if (!"POST".equals(method)) {
+                sendJson(exchange, 405, errorBody(405, "METHOD_NOT_ALLOWED"));
+                return;
+            }
+            JsonObject body = GSON.fromJson(requestBody, JsonObject.class);
+            StringBuilder text = new StringBuilder();
+            for (var content : body.getAsJsonArray("contents")) {
+                for (var part : content.getAsJsonObject().getAsJsonArray("parts")) {
+                    text.append(part.getAsJsonObject().get("text").getAsString());
+                }
+            }
+            String name = "cachedContents/stub-" + cachedContentIds.incrementAndGet();
+            CachedContent cached = new CachedContent(body.get("model").getAsString(), text.toString(), expiresAt(body));
+            cachedContents.put(name, cached);
+            sendJson(exchange, 200, GSON.toJson(cachedContentBody(name, cached)));
+            return;
+        }
+
+        String name = path.substring(index);
+        CachedContent cached = cachedContents.get(name);
+        if (cached == null || cached.isExpired()) {
+            cachedContents.remove(name);
+            sendJson(exchange, 404, errorBody(404, "NOT_FOUND"));
+            return;
+        }
+        switch (method) {
+            case "GET" -> sendJson(exchange, 200, GSON.toJson(cachedContentBody(name, cached)));
+            case "PATCH" -> {
+                CachedContent extended = new CachedContent(cached.model, cached.text,
+                        expiresAt(GSON.fromJson(requestBody, JsonObject.class)));
+                cachedContents.put(name, extended);
+                sendJson(exchange, 200, GSON.toJson(cachedContentBody(name, extended)));
+            }
+            case "DELETE" -> {
+                cachedContents.remove(name);
+                sendJson(exchange, 200, "{}");
+            }
+            default -> sendJson(exchange, 405, errorBody(405, "METHOD_NOT_ALLOWED"));
+        }
+    }
+
+    /**
+     * Expiry time from a "ttl": "{seconds}s" field; one hour when absent, as in the real API
+     */
+    private static long expiresAt(JsonObject body) {
+        long seconds = 3600;
+        if (body != null && body.has("ttl")) {
+            String ttl = body.get("ttl").getAsString();
+            seconds = (long) Double.parseDouble(ttl.endsWith("s") ? ttl.substring(0, ttl.length() - 1) : ttl);
+        }
+        return System.currentTimeMillis() + seconds * 1000L;
+    }
+
+    private static JsonObject cachedContentBody(String name, CachedContent cached) {
+        JsonObject usage = new JsonObject();
+        usage.addProperty("totalTokenCount", PromptTemplate.estimateTokens(cached.text));
+
+        JsonObject body = new JsonObject();
+        body.addProperty("name", name);
+        body.addProperty("model", cached.model);
+        body.addProperty("expireTime", Instant.ofEpochMilli(cached.expiresAt).toString());
+        body.add("usageMetadata", usage);
+        return body;
+    }
+
+    private static JsonObject parseRequest(String requestBody) {
+        try {
+            return GSON.fromJson(requestBody, JsonObject.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean requestsJsonOutput(JsonObject request) {
+        if (request == null || !request.has("generationConfig")) {
+            return false;
+        }
+        JsonObject generationConfig = request.getAsJsonObject("generationConfig");
+        return generationConfig.has("responseMimeType")
+                && "application/json".equals(generationConfig.get("responseMimeType").getAsString());
+    }
+
+    /**
+     * Number of recipes a structured-output request asks for with an array schema, or 0 for a single recipe
+     */
+    private static int requestedBatchSize(JsonObject request) {
+        if (!requestsJsonOutput(request)) {
+            return 0;
+        }
+        JsonObject generationConfig = request.getAsJsonObject("generationConfig");
+        if (!generationConfig.has("responseSchema")) {
+            return 0;
+        }
+        JsonObject schema = generationConfig.getAsJsonObject("responseSchema");
+        if (!"ARRAY".equals(schema.get("type").getAsString())) {
+            return 0;
+        }
+        return schema.has("maxItems") ? Math.max(1, schema.get("maxItems").getAsInt()) : 1;
+    }
+
+    /**
+     * Dish names listed in a batched prompt, in order
+     */
+    private static List<String> orderedDishNames(String requestBody) {
+        List<String> names = new ArrayList<>();
+        JsonObject request = parseRequest(requestBody);
+        if (request == null || !request.has("contents")) {
+            return names;
+        }
+        String text;
+        try {
+            text = request.getAsJsonArray("contents").get(0).getAsJsonObject()
+                    .getAsJsonArray("parts").get(0).getAsJsonObject().get("text").getAsString();
+        } catch (RuntimeException e) {
+            return names;
+        }
+        Matcher matcher = BATCH_DISH.matcher(text);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    private static String stripFence(String text) {
+        String stripped = text.trim();
+        if (stripped.startsWith("```")) {
+            int firstLine = stripped.indexOf('\n');
+            stripped = firstLine < 0 ? "" : stripped.substring(firstLine + 1);
+        }
+        if (stripped.endsWith("```")) {
+            stripped = stripped.substring(0, stripped.length() - 3);
+        }
+        return stripped.trim();
+    }
+
+    /**
+     * Pick a recording deterministically from the request so identical prompts get identical answers
+     */
+    private String selectRecording(String requestBody) {
+        return recordedTexts.get(Math.floorMod(requestBody.hashCode(), recordedTexts.size()));
+    }
+
+    private void sendStream(HttpExchange exchange, String text) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < text.length(); i += STREAM_CHUNK_CHARS) {
+                String fragment = text.substring(i, Math.min(text.length(), i + STREAM_CHUNK_CHARS));
+                out.write(("data: " + GSON.toJson(candidateBody(fragment)) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static JsonObject candidateBody(String text) {
+        JsonObject part = new JsonObject();
+        part.addProperty("text", text);
+        JsonArray parts = new JsonArray();
+        parts.add(part);
+
+        JsonObject content = new JsonObject();
+        content.add("parts", parts);
+        content.addProperty("role", "model");
+
+        JsonObject candidate = new JsonObject();
+        candidate.add("content", content);
+        JsonArray candidates = new JsonArray();
+        candidates.add(candidate);
+
+        JsonObject body = new JsonObject();
+        body.add("candidates", candidates);
+        return body;
+    }
+
+    private static String errorBody(int code, String status) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("status", status);
+        error.addProperty("message", "Injected by stub server");
+        JsonObject body = new JsonObject();
+        body.add("error", error);
+        return GSON.toJson(body);
+    }
+
+    /**
+     * Load the model text of each recorded response body; falls back to a built-in sample
+     */
+    private static List<String> loadRecordings(Path directory) {
+        List<String> texts = new ArrayList<>();
+        if (directory != null && Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().endsWith(".json")).sorted().forEach(path -> {
+                    try {
+                        JsonObject body = GSON.fromJson(Files.readString(path, StandardCharsets.UTF_8), JsonObject.class);
+                        texts.add(body.getAsJsonArray("candidates").get(0).getAsJsonObject()
+                                .getAsJsonObject("content").getAsJsonArray("parts").get(0).getAsJsonObject()
+                                .get("text").getAsString());
+                    } catch (Exception e) {
+                        LOGGER.warn("Skipping unreadable stub recording: {}", path, e);
+                    }
+                });
+            } catch (IOException e) {
+                LOGGER.warn("Failed to list stub recordings in {}", directory, e);
+            }
+        }
+        if (texts.isEmpty()) {
+            texts.add(builtInRecording());
+        }
+        return texts;
+    }
+
+    private static String builtInRecording() {
+        return """
+                ```json
+                {
+                  "dishName": "親子丼",
+                  "totalWeightGrams": 100,
+                  "ingredients": [
+                    {"item": "customcookingmod:rice", "amountType": "count", "amount": 0.5},
+                    {"item": "minecraft:chicken", "amountType": "count", "amount": 0.2},
+                    {"item": "minecraft:egg", "amountType": "count", "amount": 0.3},
+                    {"item": "customcookingmod:soy_sauce", "amountType": "grams", "amount": 5.0},
+                    {"item": "customcookingmod:mirin", "amountType": "grams", "amount": 4.0}
+                  ],
+                  "steps": [
+                    {"action": "cook_rice", "description": "炊飯器でご飯を炊く"},
+                    {"action": "simmer", "description": "鍋で鶏肉を醤油とみりんで煮る"},
+                    {"action": "mix_in_bowl", "description": "溶き卵を回し入れてご飯にのせる"}
+                  ],
+                  "nutritionPer100g": 3.0,
+                  "saturationPer100g": 0.6,
+                  "expirationHours": 24
+                }
+                ```""";
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StubThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CustomCooking-GeminiStub-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package jp.houlab.mochidsuki.customcookingmod.block;
+
+import net.minecraft.world.level.block.state.properties.BooleanProperty;
+
+/**
+ * Block state properties shared by cooking stations (pot, frying pan, oven, hot plate)
+ */
+public final class CookingStationProperties {
+    /**
+     * True while a cooking job is running; stations only have a block entity ticker in this state
+     */
+    public static final BooleanProperty COOKING = BooleanProperty.create("cooking");
+
+    private CookingStationProperties() {
+    }
+}
@@ -1,6 +1,7 @@
 package jp.houlab.mochidsuki.customcookingmod.block;
 
 import jp.houlab.mochidsuki.customcookingmod.blockentity.CuttingBoardBlockEntity;
+import jp.houlab.mochidsuki.customcookingmod.cooking.ItemClassification;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundEvents;
@@ -46,11 +47,11 @@ public class CuttingBoardBlock extends BaseEntityBlock {
                 ItemStack heldItem = player.getItemInHand(hand);
 
                 // Check if player is holding a knife
-                if (isKnife(heldItem)) {
+                if (ItemClassification.isKnife(heldItem)) {
                     return handleKnifeInteraction(cuttingBoard, heldItem, player, level, pos);
                 }
                 // Check if player is holding an ingredient
-                else if (isChoppableIngredient(heldItem)) {
+                else if (ItemClassification.isChoppable(heldItem)) {
                     return handleIngredientPlacement(cuttingBoard, heldItem, player, level, pos);
                 }
                 // Empty hand - pick up ingredient
@@ -154,30 +155,6 @@ public class CuttingBoardBlock extends BaseEntityBlock {
         return InteractionResult.SUCCESS;
     }
 
-    /**
-     * Check if item is a knife
-     */
-    private boolean isKnife(ItemStack stack) {
-        // Check for KaleidoscopeCookery's kitchen_knife
-        String itemId = stack.getItem().toString();
-        return itemId.contains("kitchen_knife") ||
-               stack.getItem().getDescriptionId().contains("kitchen_knife");
-    }
-
-    /**
-     * Check if item can be chopped
-     */
-    private boolean isChoppableIngredient(ItemStack stack) {
-        // Check if it's a food item or specific ingredient
-        return stack.isEdible() ||
-               stack.getItem().toString().contains("vegetable") ||
-               stack.getItem().toString().contains("meat") ||
-               stack.getItem().getDescriptionId().contains("tomato") ||
-               stack.getItem().getDescriptionId().contains("lettuce") ||
-               stack.getItem().getDescriptionId().contains("carrot") ||
-               stack.getItem().getDescriptionId().contains("potato");
-    }
-
     /**
      * Create chopped version of ingredient
      */
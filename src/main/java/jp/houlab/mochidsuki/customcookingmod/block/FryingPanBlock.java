@@ -2,6 +2,7 @@ package jp.houlab.mochidsuki.customcookingmod.block;
 
 import jp.houlab.mochidsuki.customcookingmod.blockentity.FryingPanBlockEntity;
 import jp.houlab.mochidsuki.customcookingmod.cooking.CookingAction;
+import jp.houlab.mochidsuki.customcookingmod.cooking.ItemClassification;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundEvents;
@@ -12,11 +13,13 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.BaseEntityBlock;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityTicker;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.StateDefinition;
 import net.minecraft.world.phys.BlockHitResult;
 import org.jetbrains.annotations.Nullable;
 
@@ -29,6 +32,12 @@ public class FryingPanBlock extends BaseEntityBlock {
 
     public FryingPanBlock(Properties properties) {
         super(properties);
+        this.registerDefaultState(this.stateDefinition.any().setValue(CookingStationProperties.COOKING, false));
+    }
+
+    @Override
+    protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
+        builder.add(CookingStationProperties.COOKING);
     }
 
     @Nullable
@@ -45,7 +54,11 @@ public class FryingPanBlock extends BaseEntityBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return level.isClientSide() ? null : (level1, pos, state1, blockEntity) -> {
+        // Idle stations are not ticked at all; the block entity flips COOKING when a job starts or ends
+        if (level.isClientSide() || !state.getValue(CookingStationProperties.COOKING)) {
+            return null;
+        }
+        return (level1, pos, state1, blockEntity) -> {
             if (blockEntity instanceof FryingPanBlockEntity pan) {
                 FryingPanBlockEntity.tick(level1, pos, state1, pan);
             }
@@ -60,11 +73,11 @@ public class FryingPanBlock extends BaseEntityBlock {
                 ItemStack heldItem = player.getItemInHand(hand);
 
                 // If holding spatula, start frying
-                if (isSpatula(heldItem)) {
+                if (ItemClassification.isSpatula(heldItem)) {
                     return handleSpatulaInteraction(pan, player, level, pos);
                 }
                 // If holding ingredient, add it
-                else if (isIngredient(heldItem)) {
+                else if (ItemClassification.isIngredient(heldItem)) {
                     return handleIngredientAddition(pan, heldItem, player, level, pos);
                 }
                 // Empty hand - show status
@@ -107,7 +120,7 @@ public class FryingPanBlock extends BaseEntityBlock {
 
         // Start frying
         boolean started = pan.startCooking(
-                CookingAction.FRY.getId(),
+                CookingAction.FRY,
                 CookingAction.FRY.getDefaultDurationTicks()
         );
 
@@ -178,7 +191,7 @@ public class FryingPanBlock extends BaseEntityBlock {
             );
         } else if (pan.hasIngredients()) {
             player.displayClientMessage(
-                    Component.literal("§eIngredients: " + pan.getIngredients().size() + " items. Use spatula to start frying."),
+                    Component.literal("§eIngredients: " + pan.getIngredientCount() + " items. Use spatula to start frying."),
                     true
             );
         } else {
@@ -190,21 +203,13 @@ public class FryingPanBlock extends BaseEntityBlock {
         return InteractionResult.SUCCESS;
     }
 
-    /**
-     * Check if item is a spatula
-     */
-    private boolean isSpatula(ItemStack stack) {
-        return stack.getItem().toString().contains("spatula") ||
-               stack.getItem().getDescriptionId().contains("spatula");
-    }
-
-    /**
-     * Check if item can be used as ingredient
-     */
-    private boolean isIngredient(ItemStack stack) {
-        return stack.isEdible() ||
-               stack.getItem().toString().contains("chopped") ||
-               stack.getOrCreateTag().getBoolean("chopped");
+    @Override
+    public void neighborChanged(BlockState state, Level level, BlockPos pos, Block block, BlockPos fromPos, boolean isMoving) {
+        super.neighborChanged(state, level, pos, block, fromPos, isMoving);
+        // The IH heater below was placed, replaced or removed
+        if (fromPos.equals(pos.below()) && level.getBlockEntity(pos) instanceof FryingPanBlockEntity pan) {
+            pan.invalidateHeatSource();
+        }
     }
 
     @Override
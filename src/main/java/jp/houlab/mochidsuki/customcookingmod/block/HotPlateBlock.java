@@ -2,6 +2,7 @@ package jp.houlab.mochidsuki.customcookingmod.block;
 
 import jp.houlab.mochidsuki.customcookingmod.blockentity.HotPlateBlockEntity;
 import jp.houlab.mochidsuki.customcookingmod.cooking.CookingAction;
+import jp.houlab.mochidsuki.customcookingmod.cooking.ItemClassification;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundEvents;
@@ -12,11 +13,13 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.BaseEntityBlock;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityTicker;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.StateDefinition;
 import net.minecraft.world.phys.BlockHitResult;
 import org.jetbrains.annotations.Nullable;
 
@@ -28,6 +31,12 @@ public class HotPlateBlock extends BaseEntityBlock {
 
     public HotPlateBlock(Properties properties) {
         super(properties);
+        this.registerDefaultState(this.stateDefinition.any().setValue(CookingStationProperties.COOKING, false));
+    }
+
+    @Override
+    protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
+        builder.add(CookingStationProperties.COOKING);
     }
 
     @Nullable
@@ -44,7 +53,11 @@ public class HotPlateBlock extends BaseEntityBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return level.isClientSide() ? null : (level1, pos, state1, blockEntity) -> {
+        // Idle stations are not ticked at all; the block entity flips COOKING when a job starts or ends
+        if (level.isClientSide() || !state.getValue(CookingStationProperties.COOKING)) {
+            return null;
+        }
+        return (level1, pos, state1, blockEntity) -> {
             if (blockEntity instanceof HotPlateBlockEntity hotPlate) {
                 HotPlateBlockEntity.tick(level1, pos, state1, hotPlate);
             }
@@ -59,11 +72,11 @@ public class HotPlateBlock extends BaseEntityBlock {
                 ItemStack heldItem = player.getItemInHand(hand);
 
                 // If holding spatula, start/stop cooking
-                if (isSpatula(heldItem)) {
+                if (ItemClassification.isSpatula(heldItem)) {
                     return handleSpatulaInteraction(hotPlate, player, level, pos);
                 }
                 // If holding ingredient, add it
-                else if (isIngredient(heldItem)) {
+                else if (ItemClassification.isIngredient(heldItem)) {
                     return handleIngredientAddition(hotPlate, heldItem, player, level, pos);
                 }
                 // Empty hand - show status
@@ -97,7 +110,7 @@ public class HotPlateBlock extends BaseEntityBlock {
 
         // Start stir-frying
         boolean started = hotPlate.startCooking(
-                CookingAction.STIR_FRY.getId(),
+                CookingAction.STIR_FRY,
                 CookingAction.STIR_FRY.getDefaultDurationTicks()
         );
 
@@ -168,7 +181,7 @@ public class HotPlateBlock extends BaseEntityBlock {
             );
         } else if (hotPlate.hasIngredients()) {
             player.displayClientMessage(
-                    Component.literal("§eIngredients: " + hotPlate.getIngredients().size() + " items. Use spatula to cook."),
+                    Component.literal("§eIngredients: " + hotPlate.getIngredientCount() + " items. Use spatula to cook."),
                     true
             );
         } else {
@@ -180,23 +193,6 @@ public class HotPlateBlock extends BaseEntityBlock {
         return InteractionResult.SUCCESS;
     }
 
-    /**
-     * Check if item is a spatula
-     */
-    private boolean isSpatula(ItemStack stack) {
-        return stack.getItem().toString().contains("spatula") ||
-               stack.getItem().getDescriptionId().contains("spatula");
-    }
-
-    /**
-     * Check if item can be used as ingredient
-     */
-    private boolean isIngredient(ItemStack stack) {
-        return stack.isEdible() ||
-               stack.getItem().toString().contains("chopped") ||
-               stack.getOrCreateTag().getBoolean("chopped");
-    }
-
     @Override
     public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean isMoving) {
         if (state.getBlock() != newState.getBlock()) {
@@ -2,6 +2,7 @@ package jp.houlab.mochidsuki.customcookingmod.block;
 
 import jp.houlab.mochidsuki.customcookingmod.blockentity.OvenBlockEntity;
 import jp.houlab.mochidsuki.customcookingmod.cooking.CookingAction;
+import jp.houlab.mochidsuki.customcookingmod.cooking.ItemClassification;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundEvents;
@@ -12,11 +13,13 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.BaseEntityBlock;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityTicker;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.StateDefinition;
 import net.minecraft.world.phys.BlockHitResult;
 import org.jetbrains.annotations.Nullable;
 
@@ -28,6 +31,12 @@ public class OvenBlock extends BaseEntityBlock {
 
     public OvenBlock(Properties properties) {
         super(properties);
+        this.registerDefaultState(this.stateDefinition.any().setValue(CookingStationProperties.COOKING, false));
+    }
+
+    @Override
+    protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
+        builder.add(CookingStationProperties.COOKING);
     }
 
     @Nullable
@@ -44,7 +53,11 @@ public class OvenBlock extends BaseEntityBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return level.isClientSide() ? null : (level1, pos, state1, blockEntity) -> {
+        // Idle stations are not ticked at all; the block entity flips COOKING when a job starts or ends
+        if (level.isClientSide() || !state.getValue(CookingStationProperties.COOKING)) {
+            return null;
+        }
+        return (level1, pos, state1, blockEntity) -> {
             if (blockEntity instanceof OvenBlockEntity oven) {
                 OvenBlockEntity.tick(level1, pos, state1, oven);
             }
@@ -63,7 +76,7 @@ public class OvenBlock extends BaseEntityBlock {
                     return handleBakeStart(oven, player, level, pos);
                 }
                 // If holding ingredient, add it
-                else if (isIngredient(heldItem)) {
+                else if (ItemClassification.isIngredient(heldItem)) {
                     return handleIngredientAddition(oven, heldItem, player, level, pos);
                 }
                 // Empty hand while cooking - show status
@@ -97,7 +110,7 @@ public class OvenBlock extends BaseEntityBlock {
 
         // Start baking
         boolean started = oven.startCooking(
-                CookingAction.BAKE.getId(),
+                CookingAction.BAKE,
                 CookingAction.BAKE.getDefaultDurationTicks()
         );
 
@@ -168,7 +181,7 @@ public class OvenBlock extends BaseEntityBlock {
             );
         } else if (oven.hasIngredients()) {
             player.displayClientMessage(
-                    Component.literal("§eIngredients: " + oven.getIngredients().size() + " items. Right-click with empty hand to start baking."),
+                    Component.literal("§eIngredients: " + oven.getIngredientCount() + " items. Right-click with empty hand to start baking."),
                     true
             );
         } else {
@@ -180,15 +193,6 @@ public class OvenBlock extends BaseEntityBlock {
         return InteractionResult.SUCCESS;
     }
 
-    /**
-     * Check if item can be used as ingredient
-     */
-    private boolean isIngredient(ItemStack stack) {
-        return stack.isEdible() ||
-               stack.getItem().toString().contains("chopped") ||
-               stack.getOrCreateTag().getBoolean("chopped");
-    }
-
     @Override
     public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean isMoving) {
         if (state.getBlock() != newState.getBlock()) {
@@ -2,6 +2,7 @@ package jp.houlab.mochidsuki.customcookingmod.block;
 
 import jp.houlab.mochidsuki.customcookingmod.blockentity.PotBlockEntity;
 import jp.houlab.mochidsuki.customcookingmod.cooking.CookingAction;
+import jp.houlab.mochidsuki.customcookingmod.cooking.ItemClassification;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundEvents;
@@ -12,11 +13,13 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.BaseEntityBlock;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityTicker;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.StateDefinition;
 import net.minecraft.world.phys.BlockHitResult;
 import org.jetbrains.annotations.Nullable;
 
@@ -28,6 +31,12 @@ public class PotBlock extends BaseEntityBlock {
 
     public PotBlock(Properties properties) {
         super(properties);
+        this.registerDefaultState(this.stateDefinition.any().setValue(CookingStationProperties.COOKING, false));
+    }
+
+    @Override
+    protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
+        builder.add(CookingStationProperties.COOKING);
     }
 
     @Nullable
@@ -44,7 +53,11 @@ public class PotBlock extends BaseEntityBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return level.isClientSide() ? null : (level1, pos, state1, blockEntity) -> {
+        // Idle stations are not ticked at all; the block entity flips COOKING when a job starts or ends
+        if (level.isClientSide() || !state.getValue(CookingStationProperties.COOKING)) {
+            return null;
+        }
+        return (level1, pos, state1, blockEntity) -> {
             if (blockEntity instanceof PotBlockEntity pot) {
                 PotBlockEntity.tick(level1, pos, state1, pot);
             }
@@ -59,11 +72,11 @@ public class PotBlock extends BaseEntityBlock {
                 ItemStack heldItem = player.getItemInHand(hand);
 
                 // If holding spoon, start cooking (simmer or boil)
-                if (isSpoon(heldItem)) {
+                if (ItemClassification.isSpoon(heldItem)) {
                     return handleSpoonInteraction(pot, player, level, pos);
                 }
                 // If holding ingredient, add it
-                else if (isIngredient(heldItem)) {
+                else if (ItemClassification.isIngredient(heldItem)) {
                     return handleIngredientAddition(pot, heldItem, player, level, pos);
                 }
                 // Empty hand - show status
@@ -105,11 +118,11 @@ public class PotBlock extends BaseEntityBlock {
         }
 
         // Check if ingredients contain liquid or need simmering (simple heuristic: if >2 ingredients, simmer, else boil)
-        CookingAction action = pot.getIngredients().size() > 2 ? CookingAction.SIMMER : CookingAction.BOIL;
+        CookingAction action = pot.getIngredientCount() > 2 ? CookingAction.SIMMER : CookingAction.BOIL;
 
         // Start cooking
         boolean started = pot.startCooking(
-                action.getId(),
+                action,
                 action.getDefaultDurationTicks()
         );
 
@@ -180,7 +193,7 @@ public class PotBlock extends BaseEntityBlock {
             );
         } else if (pot.hasIngredients()) {
             player.displayClientMessage(
-                    Component.literal("§eIngredients: " + pot.getIngredients().size() + " items. Use spoon to cook."),
+                    Component.literal("§eIngredients: " + pot.getIngredientCount() + " items. Use spoon to cook."),
                     true
             );
         } else {
@@ -192,21 +205,13 @@ public class PotBlock extends BaseEntityBlock {
         return InteractionResult.SUCCESS;
     }
 
-    /**
-     * Check if item is a spoon
-     */
-    private boolean isSpoon(ItemStack stack) {
-        return stack.getItem().toString().contains("spoon") ||
-               stack.getItem().getDescriptionId().contains("spoon");
-    }
-
-    /**
-     * Check if item can be used as ingredient
-     */
-    private boolean isIngredient(ItemStack stack) {
-        return stack.isEdible() ||
-               stack.getItem().toString().contains("chopped") ||
-               stack.getOrCreateTag().getBoolean("chopped");
+    @Override
+    public void neighborChanged(BlockState state, Level level, BlockPos pos, Block block, BlockPos fromPos, boolean isMoving) {
+        super.neighborChanged(state, level, pos, block, fromPos, isMoving);
+        // The IH heater below was placed, replaced or removed
+        if (fromPos.equals(pos.below()) && level.getBlockEntity(pos) instanceof PotBlockEntity pot) {
+            pot.invalidateHeatSource();
+        }
     }
 
     @Override
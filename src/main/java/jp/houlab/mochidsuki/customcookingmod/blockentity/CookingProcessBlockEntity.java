@@ -1,14 +1,20 @@
 package jp.houlab.mochidsuki.customcookingmod.blockentity;
 
+import jp.houlab.mochidsuki.customcookingmod.block.CookingStationProperties;
 import jp.houlab.mochidsuki.customcookingmod.block.IHHeaterBlock;
+import jp.houlab.mochidsuki.customcookingmod.cooking.CookingAction;
+import jp.houlab.mochidsuki.customcookingmod.cooking.NutritionAggregate;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,11 +25,23 @@ import java.util.List;
 public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
     // Cooking process data
     private final List<ItemStack> ingredients = new ArrayList<>();
-    private String currentAction = "";  // "stir_fry", "simmer", "boil", etc.
-    private int cookingProgress = 0;     // Ticks
-    private int cookingTime = 0;         // Required ticks
+    private final NutritionAggregate nutrition = new NutritionAggregate();
+    private CookingAction currentAction = CookingAction.NONE;
+    private int cookingTime = 0;         // Required progress (ticks at normal heat)
     private boolean isCooking = false;
 
+    // Progress is derived from game time instead of being counted every tick.
+    // A segment is a stretch of constant heat; a heat change closes the segment and opens a new one.
+    private long segmentStartTick = -1;       // Game time the current segment began (-1: begin on load)
+    private float segmentStartProgress = 0;   // Progress accumulated before the current segment
+    private float progressPerTick = 0;        // Progress rate during the current segment
+    private long completionTick = Long.MAX_VALUE;  // Game time at which cooking completes
+
+    // Cached heat source below (only used when requiresHeatSource())
+    private WeakReference<IHHeaterBlockEntity> heaterRef;
+    private float cachedHeatMultiplier = 0.0f;
+    private boolean heatCacheValid = false;
+
     public CookingProcessBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState blockState) {
         super(type, pos, blockState);
     }
@@ -35,7 +53,9 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
         if (ingredients.size() >= getMaxIngredients()) {
             return false;
         }
-        ingredients.add(ingredient.copy());
+        ItemStack copy = ingredient.copy();
+        ingredients.add(copy);
+        nutrition.add(copy);
         setChanged();
         return true;
     }
@@ -54,14 +74,42 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
         return new ArrayList<>(ingredients);
     }
 
+    /**
+     * Get the number of ingredients without copying the list
+     */
+    public int getIngredientCount() {
+        return ingredients.size();
+    }
+
+    /**
+     * Get one ingredient without copying the list (do not modify the returned stack)
+     */
+    protected ItemStack getIngredient(int index) {
+        return ingredients.get(index);
+    }
+
     /**
      * Clear all ingredients
      */
     public void clearIngredients() {
         ingredients.clear();
+        nutrition.clear();
         setChanged();
     }
 
+    /**
+     * Store the cooked result from the running nutrition totals and clear the ingredients
+     */
+    protected void storeCookedResult(String resultName) {
+        storeFood(
+            resultName,
+            nutrition.getTotalWeightGrams(),
+            nutrition.getNutritionPer100g(),
+            nutrition.getSaturationPer100g()
+        );
+        clearIngredients();
+    }
+
     /**
      * Check if has any ingredients
      */
@@ -72,15 +120,20 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
     /**
      * Start cooking with specified action
      */
-    public boolean startCooking(String action, int durationTicks) {
-        if (isCooking || !hasIngredients()) {
+    public boolean startCooking(CookingAction action, int durationTicks) {
+        if (isCooking || !hasIngredients() || level == null) {
+            return false;
+        }
+        float heatMultiplier = getHeatMultiplier();
+        if (heatMultiplier <= 0.0f) {
             return false;
         }
         this.currentAction = action;
         this.cookingTime = durationTicks;
-        this.cookingProgress = 0;
         this.isCooking = true;
+        beginSegment(level.getGameTime(), 0.0f, heatMultiplier);
         setChanged();
+        updateCookingState();
         return true;
     }
 
@@ -89,7 +142,71 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
      */
     public void stopCooking() {
         this.isCooking = false;
-        this.cookingProgress = 0;
+        resetSegment();
+        setChanged();
+        updateCookingState();
+    }
+
+    /**
+     * Mirror isCooking into the COOKING block state property
+     * The block only provides a ticker while COOKING is true, so idle stations drop out of the ticking list
+     */
+    private void updateCookingState() {
+        if (level == null || level.isClientSide() || isRemoved()) {
+            return;
+        }
+        BlockState state = getBlockState();
+        if (state.hasProperty(CookingStationProperties.COOKING)
+                && state.getValue(CookingStationProperties.COOKING) != isCooking) {
+            level.setBlock(worldPosition, state.setValue(CookingStationProperties.COOKING, isCooking), Block.UPDATE_ALL);
+        }
+    }
+
+    /**
+     * Open a segment of constant heat at the given game time and schedule completion
+     */
+    private void beginSegment(long gameTime, float progress, float heatMultiplier) {
+        this.segmentStartTick = gameTime;
+        this.segmentStartProgress = progress;
+        this.progressPerTick = Math.max(1, (int) heatMultiplier);
+        long remainingTicks = (long) Math.ceil((cookingTime - progress) / progressPerTick);
+        this.completionTick = gameTime + Math.max(0L, remainingTicks);
+    }
+
+    private void resetSegment() {
+        this.segmentStartTick = -1;
+        this.segmentStartProgress = 0;
+        this.progressPerTick = 0;
+        this.completionTick = Long.MAX_VALUE;
+    }
+
+    /**
+     * Progress reached at the given game time within the current segment
+     */
+    private float progressAt(long gameTime) {
+        if (segmentStartTick < 0) {
+            return segmentStartProgress;
+        }
+        return Math.min(cookingTime, segmentStartProgress + (gameTime - segmentStartTick) * progressPerTick);
+    }
+
+    /**
+     * Close the current segment and open one with the current heat
+     * Stops cooking if the heat source is gone
+     */
+    private void onHeatChanged() {
+        if (!isCooking || level == null || level.isClientSide()) {
+            return;
+        }
+        long now = level.getGameTime();
+        float progress = progressAt(now);
+        float heatMultiplier = getHeatMultiplier();
+        if (heatMultiplier <= 0.0f) {
+            // No heat - stop cooking
+            stopCooking();
+            return;
+        }
+        beginSegment(now, progress, heatMultiplier);
         setChanged();
     }
 
@@ -104,23 +221,40 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
     /**
      * Get heat multiplier from heat source below
      * Returns 1.0 for independent blocks, or IH heat multiplier for dependent blocks
+     * The heater below and its multiplier are cached; see invalidateHeatSource()
      */
     protected float getHeatMultiplier() {
         if (!requiresHeatSource()) {
             return 1.0f; // Independent operation at normal speed
         }
-        // Check for IH below
-        if (level != null) {
-            float multiplier = IHHeaterBlock.getHeatMultiplierFromBelow(level, worldPosition);
-            return multiplier;
+        if (level == null) {
+            return 0.0f; // No heat source
         }
-        return 0.0f; // No heat source
+
+        IHHeaterBlockEntity heater = heaterRef != null ? heaterRef.get() : null;
+        if (!heatCacheValid || (heater != null && heater.isRemoved())) {
+            // Check for IH below
+            heater = IHHeaterBlock.getIHBelow(level, worldPosition);
+            heaterRef = heater != null ? new WeakReference<>(heater) : null;
+            cachedHeatMultiplier = heater != null && heater.isHeating() ? heater.getSpeedMultiplier() : 0.0f;
+            heatCacheValid = true;
+        }
+        return cachedHeatMultiplier;
+    }
+
+    /**
+     * Drop the cached heat source so the next tick looks it up again
+     * Called when the block below changes or the IH heater below changes its heat level
+     */
+    public void invalidateHeatSource() {
+        heatCacheValid = false;
+        onHeatChanged();
     }
 
     /**
      * Check if heat source is available (for dependent blocks)
      */
-    protected boolean hasHeatSource() {
+    public boolean hasHeatSource() {
         if (!requiresHeatSource()) {
             return true; // Independent blocks always have "heat"
         }
@@ -129,41 +263,40 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
 
     /**
      * Tick cooking progress
-     * Call this from tick() method in subclasses
+     * Call this from tick() method in subclasses.
+     * Only compares the game time against the scheduled completion; heat changes are pushed
+     * via invalidateHeatSource(), so nothing is marked dirty until cooking actually completes.
+     * Meals whose completion time passed while the chunk was unloaded complete on the first tick after loading.
      */
     protected void tickCooking() {
-        if (!isCooking) {
+        if (level == null) {
             return;
         }
-
-        // Check heat source
-        if (!hasHeatSource()) {
-            // No heat - stop cooking
-            stopCooking();
+        if (!isCooking) {
+            // Block state says cooking but we are not; stop ticking
+            updateCookingState();
             return;
         }
-
-        // Apply heat multiplier to cooking speed
-        float heatMultiplier = getHeatMultiplier();
-        cookingProgress += Math.max(1, (int) heatMultiplier);
-
-        if (cookingProgress >= cookingTime) {
-            // Cooking complete
-            onCookingComplete();
+        if (level.getGameTime() >= completionTick) {
+            completeCooking();
         }
+    }
 
+    private void completeCooking() {
+        isCooking = false;
+        resetSegment();
+        onCookingComplete();
         setChanged();
+        updateCookingState();
     }
 
     /**
      * Called when cooking completes
-     * Override in subclasses to handle completion
+     * Override in subclasses to produce the result
      */
     protected void onCookingComplete() {
         // Create intermediate or final result
         // This will be implemented by specific cooking blocks
-        isCooking = false;
-        cookingProgress = 0;
     }
 
     /**
@@ -176,7 +309,7 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
     /**
      * Get current cooking action
      */
-    public String getCurrentAction() {
+    public CookingAction getCurrentAction() {
         return currentAction;
     }
 
@@ -187,7 +320,36 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
         if (cookingTime == 0) {
             return 0.0f;
         }
-        return (float) cookingProgress / (float) cookingTime;
+        float progress = level != null ? progressAt(level.getGameTime()) : segmentStartProgress;
+        return progress / (float) cookingTime;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (!isCooking || !(level instanceof ServerLevel serverLevel)) {
+            return;
+        }
+
+        // The heater below cannot be looked up safely while the chunk is loading, so on the next server tick:
+        // - saves from before segment-based progress only had a tick count; start timing at the heater's real level
+        // - saves from before the COOKING property have it false; flip it on
+        serverLevel.getServer().execute(() -> {
+            if (isRemoved()) {
+                return;
+            }
+            if (segmentStartTick < 0) {
+                invalidateHeatSource();
+            }
+            updateCookingState();
+        });
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        heaterRef = null;
+        heatCacheValid = false;
     }
 
     @Override
@@ -204,10 +366,13 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
         tag.put("ingredients", ingredientsList);
 
         // Save cooking state
-        tag.putString("current_action", currentAction);
-        tag.putInt("cooking_progress", cookingProgress);
+        tag.putByte("action", (byte) currentAction.ordinal());
         tag.putInt("cooking_time", cookingTime);
         tag.putBoolean("is_cooking", isCooking);
+        tag.putLong("segment_start", segmentStartTick);
+        tag.putFloat("segment_progress", segmentStartProgress);
+        tag.putFloat("progress_rate", progressPerTick);
+        tag.putLong("completion_tick", completionTick);
     }
 
     @Override
@@ -216,19 +381,33 @@ public abstract class CookingProcessBlockEntity extends CookingBlockEntity {
 
         // Load ingredients
         ingredients.clear();
+        nutrition.clear();
         ListTag ingredientsList = tag.getList("ingredients", Tag.TAG_COMPOUND);
         for (int i = 0; i < ingredientsList.size(); i++) {
             CompoundTag itemTag = ingredientsList.getCompound(i);
             ItemStack ingredient = ItemStack.of(itemTag);
             if (!ingredient.isEmpty()) {
                 ingredients.add(ingredient);
+                nutrition.add(ingredient);
             }
         }
 
         // Load cooking state
-        this.currentAction = tag.getString("current_action");
-        this.cookingProgress = tag.getInt("cooking_progress");
+        // Saves from before the byte ordinal stored the action id as a string
+        this.currentAction = tag.contains("action", Tag.TAG_BYTE)
+                ? CookingAction.fromOrdinal(tag.getByte("action"))
+                : CookingAction.fromId(tag.getString("current_action"));
         this.cookingTime = tag.getInt("cooking_time");
         this.isCooking = tag.getBoolean("is_cooking");
+        if (tag.contains("segment_start", Tag.TAG_LONG)) {
+            this.segmentStartTick = tag.getLong("segment_start");
+            this.segmentStartProgress = tag.getFloat("segment_progress");
+            this.progressPerTick = tag.getFloat("progress_rate");
+            this.completionTick = tag.getLong("completion_tick");
+        } else {
+            // Old save: per-tick counter; timing restarts in onLoad
+            resetSegment();
+            this.segmentStartProgress = tag.getInt("cooking_progress");
+        }
     }
 }
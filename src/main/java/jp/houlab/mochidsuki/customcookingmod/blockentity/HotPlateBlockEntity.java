@@ -1,5 +1,6 @@
 package jp.houlab.mochidsuki.customcookingmod.blockentity;
 
+import jp.houlab.mochidsuki.customcookingmod.cooking.CookingAction;
 import jp.houlab.mochidsuki.customcookingmod.registry.ModBlockEntities;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
@@ -23,84 +24,35 @@ public class HotPlateBlockEntity extends CookingProcessBlockEntity {
             return;
         }
 
-        // Progress cooking if active
-        if (blockEntity.isCooking()) {
-            blockEntity.tickCooking();
-        }
+        // Only called while the block state is COOKING
+        blockEntity.tickCooking();
     }
 
     @Override
     protected void onCookingComplete() {
-        super.onCookingComplete();
-
         // Generate result item based on ingredients and action
-        String action = getCurrentAction();
-        String resultName = generateResultName(action);
-
-        // Calculate nutrition based on ingredients
-        float totalNutrition = calculateTotalNutrition();
-        float totalSaturation = calculateTotalSaturation();
-        int totalWeight = calculateTotalWeight();
-
-        // Store the result
-        storeFood(resultName, totalWeight, totalNutrition, totalSaturation);
-
-        // Clear ingredients after cooking
-        clearIngredients();
+        storeCookedResult(generateResultName(getCurrentAction()));
     }
 
     /**
      * Generate result name based on action and ingredients
      */
-    private String generateResultName(String action) {
-        if (getIngredients().isEmpty()) {
+    private String generateResultName(CookingAction action) {
+        if (getIngredientCount() == 0) {
             return "Unknown Dish";
         }
 
         // Get main ingredient name
-        String mainIngredient = getIngredients().get(0).getHoverName().getString();
+        String mainIngredient = getIngredient(0).getHoverName().getString();
 
         // Add action prefix
         switch (action) {
-            case "stir_fry":
+            case STIR_FRY:
                 return "Stir-fried " + mainIngredient;
-            case "fry":
+            case FRY:
                 return "Fried " + mainIngredient;
             default:
                 return "Cooked " + mainIngredient;
         }
     }
-
-    /**
-     * Calculate total nutrition from ingredients
-     */
-    private float calculateTotalNutrition() {
-        float total = 0.0f;
-        for (var ingredient : getIngredients()) {
-            if (ingredient.isEdible() && ingredient.getFoodProperties(null) != null) {
-                total += ingredient.getFoodProperties(null).getNutrition();
-            }
-        }
-        return total;
-    }
-
-    /**
-     * Calculate total saturation from ingredients
-     */
-    private float calculateTotalSaturation() {
-        float total = 0.0f;
-        for (var ingredient : getIngredients()) {
-            if (ingredient.isEdible() && ingredient.getFoodProperties(null) != null) {
-                total += ingredient.getFoodProperties(null).getSaturationModifier();
-            }
-        }
-        return total;
-    }
-
-    /**
-     * Calculate total weight (assume 100g per item for now)
-     */
-    private int calculateTotalWeight() {
-        return getIngredients().size() * 100;
-    }
 }
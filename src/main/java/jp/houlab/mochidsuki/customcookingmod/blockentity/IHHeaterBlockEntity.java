@@ -74,6 +74,7 @@ public class IHHeaterBlockEntity extends BlockEntity {
     public void setHeatLevel(HeatLevel level) {
         this.heatLevel = level;
         setChanged();
+        notifyCookingBlockAbove();
     }
 
     /**
@@ -82,6 +83,16 @@ public class IHHeaterBlockEntity extends BlockEntity {
     public void cycleHeatLevel() {
         this.heatLevel = this.heatLevel.next();
         setChanged();
+        notifyCookingBlockAbove();
+    }
+
+    /**
+     * Push a heat change to the cooking block above, which caches our multiplier
+     */
+    private void notifyCookingBlockAbove() {
+        if (level != null && level.getBlockEntity(worldPosition.above()) instanceof CookingProcessBlockEntity cooking) {
+            cooking.invalidateHeatSource();
+        }
     }
 
     /**
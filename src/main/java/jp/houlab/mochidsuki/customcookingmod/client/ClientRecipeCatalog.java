@@ -0,0 +1,148 @@
+package jp.houlab.mochidsuki.customcookingmod.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeCatalogHavePacket;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client-side recipe catalog
+ * Recipes received from servers, keyed by content hash and persisted in the game directory.
+ * The server sends only the hash for recipes listed here, so repeated views cost a few bytes.
+ * Accessed on the client thread only.
+ */
+public class ClientRecipeCatalog {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final int MAX_ENTRIES = RecipeCatalogHavePacket.MAX_HASHES;
+
+    private static ClientRecipeCatalog instance;
+
+    // Access order, so the least recently used recipes are dropped first when trimming
+    private final LinkedHashMap<Long, RecipeGenerator.RecipeData> recipes = new LinkedHashMap<>(64, 0.75f, true);
+    private final Path file;
+    private boolean dirty = false;
+
+    private ClientRecipeCatalog(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the catalog, loading it from disk on first use
+     */
+    public static ClientRecipeCatalog get() {
+        if (instance == null) {
+            instance = new ClientRecipeCatalog(FMLPaths.GAMEDIR.get()
+                    .resolve(CustomcookingmodMain.MODID)
+                    .resolve("recipe_catalog.json"));
+            instance.load();
+        }
+        return instance;
+    }
+
+    public RecipeGenerator.RecipeData get(long hash) {
+        return recipes.get(hash);
+    }
+
+    /**
+     * Add a recipe received from the server
+     * Entries are never dropped mid-session: the server assumes every reported or sent hash stays available
+     */
+    public void put(long hash, RecipeGenerator.RecipeData recipe) {
+        if (recipes.put(hash, recipe) == null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Content hashes of every recipe held, reported to the server on login
+     */
+    public long[] getHashes() {
+        long[] hashes = new long[recipes.size()];
+        int i = 0;
+        for (long hash : recipes.keySet()) {
+            hashes[i++] = hash;
+        }
+        return hashes;
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            JsonObject root = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), JsonObject.class);
+            for (JsonElement element : root.getAsJsonArray("entries")) {
+                JsonObject entry = element.getAsJsonObject();
+                long hash = Long.parseUnsignedLong(entry.get("hash").getAsString(), 16);
+                recipes.put(hash, GSON.fromJson(entry.get("recipe"), RecipeGenerator.RecipeData.class));
+            }
+            trim();
+            LOGGER.info("Loaded {} recipes from the client recipe catalog", recipes.size());
+        } catch (Exception e) {
+            LOGGER.warn("Discarding unreadable client recipe catalog: {}", file, e);
+            recipes.clear();
+        }
+    }
+
+    /**
+     * Write the catalog to disk if it changed (called when leaving a server)
+     */
+    public void save() {
+        trim();
+        if (!dirty) {
+            return;
+        }
+
+        JsonArray entries = new JsonArray();
+        for (Map.Entry<Long, RecipeGenerator.RecipeData> recipe : recipes.entrySet()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("hash", Long.toHexString(recipe.getKey()));
+            entry.add("recipe", GSON.toJsonTree(recipe.getValue()));
+            entries.add(entry);
+        }
+        JsonObject root = new JsonObject();
+        root.add("entries", entries);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(temp, GSON.toJson(root), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.error("Failed to save client recipe catalog: {}", file, e);
+        }
+    }
+
+    /**
+     * Drop least recently used recipes beyond the capacity (only between sessions)
+     */
+    private void trim() {
+        Iterator<Long> iterator = recipes.keySet().iterator();
+        while (recipes.size() > MAX_ENTRIES && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package jp.houlab.mochidsuki.customcookingmod.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import jp.houlab.mochidsuki.customcookingmod.ai.AdaptiveConcurrencyBackend;
+import jp.houlab.mochidsuki.customcookingmod.ai.FairRecipeQueue;
+import jp.houlab.mochidsuki.customcookingmod.ai.GeminiApiClient;
+import jp.houlab.mochidsuki.customcookingmod.ai.GeminiContextCache;
+import jp.houlab.mochidsuki.customcookingmod.ai.GeminiKeyPool;
+import jp.houlab.mochidsuki.customcookingmod.ai.ModelCascade;
+import jp.houlab.mochidsuki.customcookingmod.ai.PromptTemplate;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeBackend;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeBackends;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeCache;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerationService;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import jp.houlab.mochidsuki.customcookingmod.ai.ResilientRecipeBackend;
+import jp.houlab.mochidsuki.customcookingmod.ai.SingleFlight;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeRequestLimiter;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server commands for CustomCookingMod
+ * /cookingai stats - show AI recipe generation statistics (operators only)
+ * /cookingai loadtest <requests> <distinct> - fire requests at the stub backend and report throughput
+ */
+public class ModCommands {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("cookingai")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("stats")
+                        .executes(ModCommands::showStats))
+                .then(Commands.literal("loadtest")
+                        .then(Commands.argument("requests", IntegerArgumentType.integer(1, 100000))
+                                .then(Commands.argument("distinct", IntegerArgumentType.integer(1, 100000))
+                                        .executes(ModCommands::runLoadTest)))));
+    }
+
+    private static int showStats(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        RecipeGenerationService service;
+        try {
+            service = RecipeGenerationService.get();
+        } catch (IllegalStateException e) {
+            source.sendFailure(Component.literal("Recipe generation service is not running"));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("§6Backend: §f" + service.getBackend().getName()), false);
+
+        List<ModelCascade.Tier> tiers = service.getCascade().getTiers();
+        for (ModelCascade.Tier tier : tiers) {
+            long p50 = tier.getLatencyPercentile(0.5);
+            long p95 = tier.getLatencyPercentile(0.95);
+            source.sendSuccess(() -> Component.literal(String.format("§6Model %s: §f%d calls, %d resolved, %d escalated, latency p50 %s / p95 %s",
+                    tier.getModel(), tier.getAttemptCount(), tier.getResolvedCount(), tier.getEscalatedCount(),
+                    p50 < 0 ? "-" : p50 + " ms", p95 < 0 ? "-" : p95 + " ms")), false);
+            showBackendStats(source, tier.getBackend(), tiers.size() > 1 ? tier.getModel() + " " : "");
+        }
+
+        source.sendSuccess(() -> Component.literal(String.format("§6Admission: §f%d accepted, rejected %d kitchen busy / %d player limit / %d server limit, %d kitchens generating",
+                RecipeRequestLimiter.getAcceptedCount(), RecipeRequestLimiter.getRejectedKitchenBusyCount(),
+                RecipeRequestLimiter.getRejectedPlayerCount(), RecipeRequestLimiter.getRejectedGlobalCount(),
+                RecipeRequestLimiter.getBusyKitchenCount())), false);
+
+        FairRecipeQueue queue = service.getQueue();
+        long waitP50 = queue.getWaitPercentile(0.5);
+        long waitP99 = queue.getWaitPercentile(0.99);
+        source.sendSuccess(() -> Component.literal(String.format("§6Queue: §f%d queued across %d players, %d active, %d dequeued, wait p50 %s / p99 %s",
+                service.getQueuedCount(), queue.getLaneCount(), service.getActiveCount(), queue.getDequeuedCount(),
+                waitP50 < 0 ? "-" : waitP50 + " ms", waitP99 < 0 ? "-" : waitP99 + " ms")), false);
+
+        SingleFlight<?, ?> singleFlight = service.getSingleFlight();
+        source.sendSuccess(() -> Component.literal(String.format("§6Coalescing: §f%d in flight, %d requests joined an existing generation",
+                singleFlight.getInFlightCount(), singleFlight.getCoalescedCount())), false);
+
+        RecipeGenerator generator = service.getGenerator();
+        if (service.getBatchMaxSize() > 1) {
+            long batches = generator.getBatchCount();
+            source.sendSuccess(() -> Component.literal(String.format("§6Batching: §f%d batches of up to %d, %.1f dishes per batch, %d dishes generated individually after a batch",
+                    batches, service.getBatchMaxSize(), batches > 0 ? (double) generator.getBatchedDishCount() / batches : 0.0,
+                    generator.getBatchFallbackCount())), false);
+        }
+
+        long requested = generator.getRequestCount();
+        source.sendSuccess(() -> Component.literal(String.format("§6Responses: §f%d requested, %d valid (%.1f%%), %d empty, %d malformed JSON, %d schema violations",
+                requested, generator.getValidResponseCount(),
+                requested > 0 ? 100.0 * generator.getValidResponseCount() / requested : 100.0,
+                generator.getEmptyResponseCount(), generator.getMalformedResponseCount(), generator.getInvalidResponseCount())), false);
+        Map<String, Long> violations = generator.getViolationsByField();
+        if (!violations.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("§6Schema violations by field: §f" + violations), false);
+        }
+
+        PromptTemplate template = PromptTemplate.get();
+        source.sendSuccess(() -> Component.literal(String.format("§6Prompt: §f~%d token prefix (%d catalog items), ~%d tokens per request over %d requests",
+                template.getPrefixTokens(), template.getCatalogSize(), PromptTemplate.getAverageTokens(), PromptTemplate.getRenderCount())), false);
+
+        RecipeCache cache = service.getCache();
+        source.sendSuccess(() -> Component.literal(String.format("§6Cache: §f%d entries (%d bytes), %d hits, %d misses, %d evictions",
+                cache.size(), cache.getCurrentBytes(), cache.getHits(), cache.getMisses(), cache.getEvictions())), false);
+        return 1;
+    }
+
+    /**
+     * Show the statistics of one backend's decorators
+     *
+     * @param label Prefix naming the cascade tier, or empty with a single tier
+     */
+    private static void showBackendStats(CommandSourceStack source, RecipeBackend backend, String label) {
+        ResilientRecipeBackend resilient = backend.unwrap(ResilientRecipeBackend.class);
+        if (resilient != null) {
+            long hedgeDelay = resilient.getHedgeDelayMillis();
+            source.sendSuccess(() -> Component.literal(String.format("§6%sResilience: §f%d ok, %d failed, %d retries, hedges %d sent / %d won (delay %s), circuit %s (%d opens, %d fast-failed)",
+                    label, resilient.getSuccessCount(), resilient.getFailureCount(), resilient.getRetryCount(),
+                    resilient.getHedgesSent(), resilient.getHedgesWon(), hedgeDelay < 0 ? "off" : hedgeDelay + " ms",
+                    resilient.getCircuitBreaker().getState(), resilient.getCircuitBreaker().getOpenCount(),
+                    resilient.getCircuitBreaker().getRejectedCount())), false);
+        }
+
+        AdaptiveConcurrencyBackend concurrency = backend.unwrap(AdaptiveConcurrencyBackend.class);
+        if (concurrency != null) {
+            long baseline = concurrency.getBaselineLatencyMillis();
+            source.sendSuccess(() -> Component.literal(String.format("§6%sConcurrency: §flimit %d, %d in flight, %d waiting (%d delayed in total), latency baseline %s, %d cuts",
+                    label, concurrency.getLimit(), concurrency.getInFlightCount(), concurrency.getWaitingCount(),
+                    concurrency.getDelayedCount(), baseline < 0 ? "-" : baseline + " ms", concurrency.getDecreaseCount())), false);
+        }
+
+        GeminiApiClient gemini = backend.unwrap(GeminiApiClient.class);
+        if (gemini == null) {
+            return;
+        }
+        List<GeminiKeyPool.KeyStats> keys = gemini.getKeyPool().getStats();
+        if (keys.size() > 1) {
+            for (GeminiKeyPool.KeyStats key : keys) {
+                source.sendSuccess(() -> Component.literal(String.format("§6%sKey %s: §f%s, %d requests (%s in the last minute), %d rate limited, %d forbidden, benched %d times",
+                        label, key.label, key.inRotation ? "in rotation" : "§cbenched§f", key.requests,
+                        key.requestsPerMinute > 0 ? key.usedLastMinute + "/" + key.requestsPerMinute : String.valueOf(key.usedLastMinute),
+                        key.rateLimited, key.forbidden, key.benchings)), false);
+            }
+        }
+
+        List<GeminiContextCache> contextCaches = gemini.getContextCaches();
+        if (!contextCaches.isEmpty()) {
+            long cached = contextCaches.stream().mapToLong(GeminiContextCache::getCachedRequests).sum();
+            long inline = contextCaches.stream().mapToLong(GeminiContextCache::getInlineRequests).sum();
+            long created = contextCaches.stream().mapToLong(GeminiContextCache::getCreations).sum();
+            long extended = contextCaches.stream().mapToLong(GeminiContextCache::getRefreshes).sum();
+            source.sendSuccess(() -> Component.literal(String.format("§6%sContext cache: §f%d requests cached, %d inline, %d created, %d extended",
+                    label, cached, inline, created, extended)), false);
+        }
+    }
+
+    /**
+     * Submit a burst of generation requests through the full service path (cache, coalescing, executor)
+     * Only allowed on the stub backend so a load test never spends API quota
+     */
+    private static int runLoadTest(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        RecipeGenerationService service;
+        try {
+            service = RecipeGenerationService.get();
+        } catch (IllegalStateException e) {
+            source.sendFailure(Component.literal("Recipe generation service is not running"));
+            return 0;
+        }
+        if (!RecipeBackends.STUB.equals(service.getBackend().getName())) {
+            source.sendFailure(Component.literal("Load tests require recipeBackend = \"stub\""));
+            return 0;
+        }
+
+        int requests = IntegerArgumentType.getInteger(context, "requests");
+        int distinct = IntegerArgumentType.getInteger(context, "distinct");
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+
+        // Each run starts from an empty, memory-only cache of its own; load test recipes never reach the world's cache
+        service.resetLoadTest();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            try {
+                futures[i] = service.submitLoadTest("loadtest-" + (i % distinct), "loadtest")
+                        .handle((data, throwable) -> {
+                            if (throwable != null && throwable.getCause() instanceof RejectedExecutionException) {
+                                rejected.incrementAndGet();
+                            } else if (throwable != null || data == null) {
+                                failed.incrementAndGet();
+                            } else {
+                                succeeded.incrementAndGet();
+                            }
+                            return null;
+                        });
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                futures[i] = CompletableFuture.completedFuture(null);
+            }
+        }
+
+        source.sendSuccess(() -> Component.literal(String.format("§6Load test: §f%d requests submitted (%d distinct dishes)",
+                requests, distinct)), false);
+
+        CompletableFuture.allOf(futures).whenComplete((ignored, throwable) -> {
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            source.getServer().execute(() -> source.sendSuccess(() -> Component.literal(String.format(
+                    "§6Load test finished: §f%d ok, %d failed, %d rejected in %.2fs (%.1f req/s)",
+                    succeeded.get(), failed.get(), rejected.get(), seconds, requests / seconds)), false));
+        });
+        return 1;
+    }
+}
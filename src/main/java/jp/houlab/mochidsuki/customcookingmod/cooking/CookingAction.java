@@ -1,5 +1,9 @@
 package jp.houlab.mochidsuki.customcookingmod.cooking;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * Enum for cooking actions
  * Each action represents a cooking method
@@ -16,6 +20,11 @@ public enum CookingAction {
     FRY("fry", "Frying", 200),                     // 10 seconds
     NONE("none", "None", 0);
 
+    // Static indexes; fromId/fromOrdinal never scan or clone values()
+    private static final CookingAction[] BY_ORDINAL = values();
+    private static final Map<String, CookingAction> BY_ID = Arrays.stream(BY_ORDINAL)
+            .collect(Collectors.toUnmodifiableMap(CookingAction::getId, action -> action));
+
     private final String id;
     private final String displayName;
     private final int defaultDurationTicks;
@@ -42,12 +51,15 @@ public enum CookingAction {
      * Get action by ID
      */
     public static CookingAction fromId(String id) {
-        for (CookingAction action : values()) {
-            if (action.id.equals(id)) {
-                return action;
-            }
-        }
-        return NONE;
+        return BY_ID.getOrDefault(id, NONE);
+    }
+
+    /**
+     * Get action by ordinal (as persisted in NBT)
+     * New actions must only be appended (never reordered) so saved ordinals stay valid
+     */
+    public static CookingAction fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < BY_ORDINAL.length ? BY_ORDINAL[ordinal] : NONE;
     }
 
     /**
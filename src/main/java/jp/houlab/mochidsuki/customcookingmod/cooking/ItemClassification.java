@@ -0,0 +1,116 @@
+package jp.houlab.mochidsuki.customcookingmod.cooking;
+
+import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.slf4j.Logger;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Item Classification
+ * Compiles the mod's item tags into a per-Item flag index whenever tags are (re)loaded,
+ * so cooking blocks classify the held item with a single lookup instead of matching item names.
+ * Edible items always count as ingredients and can be chopped.
+ */
+@Mod.EventBusSubscriber(modid = CustomcookingmodMain.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ItemClassification {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final TagKey<Item> SPOONS = tag("tools/spoon");
+    public static final TagKey<Item> SPATULAS = tag("tools/spatula");
+    public static final TagKey<Item> KNIVES = tag("tools/knife");
+    public static final TagKey<Item> INGREDIENTS = tag("ingredients/cooking");
+    public static final TagKey<Item> CHOPPABLE = tag("ingredients/choppable");
+
+    private static final int SPOON = 1;
+    private static final int SPATULA = 1 << 1;
+    private static final int KNIFE = 1 << 2;
+    private static final int INGREDIENT = 1 << 3;
+    private static final int CHOPPABLE_INGREDIENT = 1 << 4;
+
+    // Replaced as a whole on every tag reload; readers never see a half-built index
+    private static volatile Map<Item, Integer> flags = Map.of();
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the index from the currently bound item tags
+     */
+    public static void rebuild() {
+        Map<Item, Integer> index = new IdentityHashMap<>();
+        for (Item item : BuiltInRegistries.ITEM) {
+            if (item.isEdible()) {
+                index.put(item, INGREDIENT | CHOPPABLE_INGREDIENT);
+            }
+        }
+        addTag(index, SPOONS, SPOON);
+        addTag(index, SPATULAS, SPATULA);
+        addTag(index, KNIVES, KNIFE);
+        addTag(index, INGREDIENTS, INGREDIENT);
+        addTag(index, CHOPPABLE, CHOPPABLE_INGREDIENT | INGREDIENT);
+        flags = index;
+        LOGGER.debug("Classified {} items for cooking", index.size());
+    }
+
+    public static boolean isSpoon(ItemStack stack) {
+        return has(stack, SPOON);
+    }
+
+    public static boolean isSpatula(ItemStack stack) {
+        return has(stack, SPATULA);
+    }
+
+    public static boolean isKnife(ItemStack stack) {
+        return has(stack, KNIFE);
+    }
+
+    /**
+     * Check if the stack can be put into a pot, frying pan, hot plate or oven
+     * Stacks chopped on the cutting board are always accepted
+     */
+    public static boolean isIngredient(ItemStack stack) {
+        if (has(stack, INGREDIENT)) {
+            return true;
+        }
+        // Read-only NBT access; never create a tag on the held stack
+        CompoundTag tag = stack.getTag();
+        return tag != null && tag.getBoolean("chopped");
+    }
+
+    /**
+     * Check if the stack can be placed on the cutting board
+     */
+    public static boolean isChoppable(ItemStack stack) {
+        return has(stack, CHOPPABLE_INGREDIENT);
+    }
+
+    private static boolean has(ItemStack stack, int flag) {
+        Integer value = flags.get(stack.getItem());
+        return value != null && (value & flag) != 0;
+    }
+
+    private static void addTag(Map<Item, Integer> index, TagKey<Item> tag, int flag) {
+        for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(tag)) {
+            index.merge(holder.value(), flag, (a, b) -> a | b);
+        }
+    }
+
+    private static TagKey<Item> tag(String path) {
+        return ItemTags.create(new ResourceLocation(CustomcookingmodMain.MODID, path));
+    }
+}
@@ -0,0 +1,70 @@
+package jp.houlab.mochidsuki.customcookingmod.cooking;
+
+import net.minecraft.world.food.FoodProperties;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Running nutrition totals for the ingredients in a cooking block
+ * Updated as ingredients are added or cleared, so the result is available in O(1) when cooking completes.
+ * Each ingredient entry counts as 100g; nutrition and saturation scale with the stack count.
+ */
+public class NutritionAggregate {
+    public static final int GRAMS_PER_INGREDIENT = 100;
+
+    // Per-item food values; items never change their base food properties at runtime
+    private static final Map<Item, float[]> FOOD_VALUES = new IdentityHashMap<>();
+    private static final float[] NOT_FOOD = new float[] {0.0f, 0.0f};
+
+    private float totalNutrition = 0.0f;
+    private float totalSaturation = 0.0f;
+    private int ingredientCount = 0;
+
+    /**
+     * Add one ingredient entry
+     */
+    public void add(ItemStack ingredient) {
+        float[] values = foodValues(ingredient);
+        totalNutrition += values[0] * ingredient.getCount();
+        totalSaturation += values[1] * ingredient.getCount();
+        ingredientCount++;
+    }
+
+    public void clear() {
+        totalNutrition = 0.0f;
+        totalSaturation = 0.0f;
+        ingredientCount = 0;
+    }
+
+    public int getTotalWeightGrams() {
+        return ingredientCount * GRAMS_PER_INGREDIENT;
+    }
+
+    public float getNutritionPer100g() {
+        return ingredientCount > 0 ? totalNutrition / ingredientCount : 0.0f;
+    }
+
+    public float getSaturationPer100g() {
+        return ingredientCount > 0 ? totalSaturation / ingredientCount : 0.0f;
+    }
+
+    /**
+     * Nutrition and saturation of one item, cached per Item
+     * Reads the item's base food properties (not the stack-aware lookup), which cannot differ between stacks
+     */
+    private static float[] foodValues(ItemStack ingredient) {
+        Item item = ingredient.getItem();
+        synchronized (FOOD_VALUES) {
+            float[] values = FOOD_VALUES.get(item);
+            if (values == null) {
+                FoodProperties food = item.getFoodProperties();
+                values = food != null ? new float[] {food.getNutrition(), food.getSaturationModifier()} : NOT_FOOD;
+                FOOD_VALUES.put(item, values);
+            }
+            return values;
+        }
+    }
+}
@@ -13,7 +13,7 @@ import net.minecraftforge.network.simple.SimpleChannel;
  * Manages packet registration and sending
  */
 public class ModNetworking {
-    private static final String PROTOCOL_VERSION = "1";
+    private static final String PROTOCOL_VERSION = "4";  // 4: request rejection packet
     public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
             new ResourceLocation(CustomcookingmodMain.MODID, "main"),
             () -> PROTOCOL_VERSION,
@@ -35,12 +35,36 @@ public class ModNetworking {
                 .consumerMainThread(RecipeGenerationRequestPacket::handle)
                 .add();
 
+        CHANNEL.messageBuilder(RecipeCatalogHavePacket.class, id(), NetworkDirection.PLAY_TO_SERVER)
+                .decoder(RecipeCatalogHavePacket::decode)
+                .encoder(RecipeCatalogHavePacket::encode)
+                .consumerMainThread(RecipeCatalogHavePacket::handle)
+                .add();
+
         // Server to Client packets
         CHANNEL.messageBuilder(RecipeGenerationResponsePacket.class, id(), NetworkDirection.PLAY_TO_CLIENT)
                 .decoder(RecipeGenerationResponsePacket::decode)
                 .encoder(RecipeGenerationResponsePacket::encode)
                 .consumerMainThread(RecipeGenerationResponsePacket::handle)
                 .add();
+
+        CHANNEL.messageBuilder(RecipeGenerationProgressPacket.class, id(), NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(RecipeGenerationProgressPacket::decode)
+                .encoder(RecipeGenerationProgressPacket::encode)
+                .consumerMainThread(RecipeGenerationProgressPacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(RecipeGenerationRejectedPacket.class, id(), NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(RecipeGenerationRejectedPacket::decode)
+                .encoder(RecipeGenerationRejectedPacket::encode)
+                .consumerMainThread(RecipeGenerationRejectedPacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(RecipeCatalogSyncPacket.class, id(), NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(RecipeCatalogSyncPacket::decode)
+                .encoder(RecipeCatalogSyncPacket::encode)
+                .consumerMainThread(RecipeCatalogSyncPacket::handle)
+                .add();
     }
 
     /**
@@ -0,0 +1,52 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Client to Server packet
+ * Sent on login with the content hashes of every recipe in the client's catalog
+ */
+public class RecipeCatalogHavePacket {
+    // Upper bound on reported hashes; matches the client catalog capacity
+    public static final int MAX_HASHES = 4096;
+
+    private final long[] hashes;
+
+    public RecipeCatalogHavePacket(long[] hashes) {
+        this.hashes = hashes;
+    }
+
+    public static void encode(RecipeCatalogHavePacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.hashes.length);
+        for (long hash : packet.hashes) {
+            buf.writeLong(hash);
+        }
+    }
+
+    public static RecipeCatalogHavePacket decode(FriendlyByteBuf buf) {
+        int count = buf.readVarInt();
+        if (count < 0 || count > MAX_HASHES) {
+            throw new IllegalArgumentException("Too many catalog hashes: " + count);
+        }
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = buf.readLong();
+        }
+        return new RecipeCatalogHavePacket(hashes);
+    }
+
+    public static void handle(RecipeCatalogHavePacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            ServerPlayer player = context.getSender();
+            if (player != null) {
+                RecipeCatalogTracker.onClientCatalog(player, packet.hashes);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
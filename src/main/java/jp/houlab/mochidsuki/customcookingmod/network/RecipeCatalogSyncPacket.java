@@ -0,0 +1,63 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import jp.houlab.mochidsuki.customcookingmod.client.ClientRecipeCatalog;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Server to Client packet
+ * A batch of recipes the client's catalog is missing, sent after login
+ */
+public class RecipeCatalogSyncPacket {
+    private final long[] hashes;
+    private final List<RecipeGenerator.RecipeData> recipes;
+
+    public RecipeCatalogSyncPacket(List<RecipeGenerator.RecipeData> recipes) {
+        this.recipes = recipes;
+        this.hashes = new long[recipes.size()];
+        for (int i = 0; i < recipes.size(); i++) {
+            hashes[i] = recipes.get(i).contentHash();
+        }
+    }
+
+    private RecipeCatalogSyncPacket(long[] hashes, List<RecipeGenerator.RecipeData> recipes) {
+        this.hashes = hashes;
+        this.recipes = recipes;
+    }
+
+    public static void encode(RecipeCatalogSyncPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.recipes.size());
+        for (int i = 0; i < packet.recipes.size(); i++) {
+            // Hashes are sent rather than recomputed so client and server always agree on them
+            buf.writeLong(packet.hashes[i]);
+            RecipeDataCodec.write(buf, packet.recipes.get(i));
+        }
+    }
+
+    public static RecipeCatalogSyncPacket decode(FriendlyByteBuf buf) {
+        int count = buf.readVarInt();
+        long[] hashes = new long[count];
+        List<RecipeGenerator.RecipeData> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hashes[i] = buf.readLong();
+            recipes.add(RecipeDataCodec.read(buf));
+        }
+        return new RecipeCatalogSyncPacket(hashes, recipes);
+    }
+
+    public static void handle(RecipeCatalogSyncPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            // Client-side handling
+            for (int i = 0; i < packet.recipes.size(); i++) {
+                ClientRecipeCatalog.get().put(packet.hashes[i], packet.recipes.get(i));
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
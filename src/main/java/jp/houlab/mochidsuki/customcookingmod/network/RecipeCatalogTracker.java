@@ -0,0 +1,86 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerationService;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Server-side view of each player's client recipe catalog
+ * Tracks which recipe content hashes a client already holds so responses can send only the hash.
+ * Accessed on the server thread only.
+ */
+public class RecipeCatalogTracker {
+    // Recipes per RecipeCatalogSyncPacket
+    private static final int SYNC_BATCH_SIZE = 32;
+    // Most recently used cached recipes offered to a client on login
+    private static final int MAX_SYNC_ENTRIES = 256;
+
+    private static final Map<UUID, Set<Long>> KNOWN = new HashMap<>();
+    private static final Set<UUID> REPORTED = new HashSet<>();
+
+    /**
+     * Record the catalog a client reported on login and send it the cached recipes it lacks
+     * Only the first report per login is honored
+     */
+    public static void onClientCatalog(ServerPlayer player, long[] hashes) {
+        if (!REPORTED.add(player.getUUID())) {
+            return;
+        }
+        Set<Long> known = KNOWN.computeIfAbsent(player.getUUID(), uuid -> new HashSet<>(hashes.length * 2));
+        for (long hash : hashes) {
+            known.add(hash);
+        }
+
+        List<RecipeGenerator.RecipeData> cached;
+        try {
+            cached = RecipeGenerationService.get().getCache().snapshot();
+        } catch (IllegalStateException e) {
+            return;
+        }
+
+        List<RecipeGenerator.RecipeData> batch = new ArrayList<>(SYNC_BATCH_SIZE);
+        int offered = 0;
+        for (RecipeGenerator.RecipeData recipe : cached) {
+            if (offered++ >= MAX_SYNC_ENTRIES) {
+                break;
+            }
+            if (!known.add(recipe.contentHash())) {
+                continue;
+            }
+            batch.add(recipe);
+            if (batch.size() == SYNC_BATCH_SIZE) {
+                ModNetworking.sendToPlayer(new RecipeCatalogSyncPacket(batch), player);
+                batch = new ArrayList<>(SYNC_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            ModNetworking.sendToPlayer(new RecipeCatalogSyncPacket(batch), player);
+        }
+    }
+
+    /**
+     * Mark a recipe as held by the client
+     *
+     * @return true if the client already had it (send the hash only)
+     */
+    public static boolean markSent(ServerPlayer player, RecipeGenerator.RecipeData recipe) {
+        Set<Long> known = KNOWN.computeIfAbsent(player.getUUID(), uuid -> new HashSet<>());
+        return !known.add(recipe.contentHash());
+    }
+
+    /**
+     * Forget a player's catalog (called on logout)
+     */
+    public static void forget(ServerPlayer player) {
+        KNOWN.remove(player.getUUID());
+        REPORTED.remove(player.getUUID());
+    }
+}
@@ -0,0 +1,164 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary codec for RecipeData
+ *
+ * Layout:
+ *   varint stringCount, utf[stringCount]       string table (dish name is always entry 0)
+ *   varint totalWeightGrams, float nutritionPer100g, float saturationPer100g, varint expirationHours
+ *   varint ingredientCount
+ *     per ingredient: varint itemRef (registry id + 1, or 0 followed by a string index), varint amountType index
+ *     float[ingredientCount] amounts (packed after the references)
+ *   varint stepCount
+ *     per step: varint action index, varint description index
+ */
+public final class RecipeDataCodec {
+    // Upper bound for a single string; well above readUtf's default of 32767 chars
+    private static final int MAX_STRING_LENGTH = 262144;
+
+    private RecipeDataCodec() {
+    }
+
+    public static void write(FriendlyByteBuf buf, RecipeGenerator.RecipeData data) {
+        List<RecipeGenerator.RecipeData.Ingredient> ingredients = data.ingredients != null ? data.ingredients : List.of();
+        List<RecipeGenerator.RecipeData.CookingStep> steps = data.steps != null ? data.steps : List.of();
+
+        // Resolve item references and build the string table
+        StringTable strings = new StringTable();
+        strings.indexOf(data.dishName);
+        int[] itemRefs = new int[ingredients.size()];
+        for (int i = 0; i < ingredients.size(); i++) {
+            RecipeGenerator.RecipeData.Ingredient ingredient = ingredients.get(i);
+            itemRefs[i] = itemRef(ingredient.itemId);
+            if (itemRefs[i] == 0) {
+                strings.indexOf(ingredient.itemId);
+            }
+            strings.indexOf(ingredient.amountType);
+        }
+        for (RecipeGenerator.RecipeData.CookingStep step : steps) {
+            strings.indexOf(step.action);
+            strings.indexOf(step.description);
+        }
+
+        buf.writeVarInt(strings.size());
+        for (String value : strings.values()) {
+            buf.writeUtf(value, MAX_STRING_LENGTH);
+        }
+
+        buf.writeVarInt(data.totalWeightGrams);
+        buf.writeFloat(data.nutritionPer100g);
+        buf.writeFloat(data.saturationPer100g);
+        buf.writeVarInt(data.expirationHours);
+
+        buf.writeVarInt(ingredients.size());
+        for (int i = 0; i < ingredients.size(); i++) {
+            RecipeGenerator.RecipeData.Ingredient ingredient = ingredients.get(i);
+            buf.writeVarInt(itemRefs[i]);
+            if (itemRefs[i] == 0) {
+                buf.writeVarInt(strings.indexOf(ingredient.itemId));
+            }
+            buf.writeVarInt(strings.indexOf(ingredient.amountType));
+        }
+        for (RecipeGenerator.RecipeData.Ingredient ingredient : ingredients) {
+            buf.writeFloat(ingredient.amount);
+        }
+
+        buf.writeVarInt(steps.size());
+        for (RecipeGenerator.RecipeData.CookingStep step : steps) {
+            buf.writeVarInt(strings.indexOf(step.action));
+            buf.writeVarInt(strings.indexOf(step.description));
+        }
+    }
+
+    public static RecipeGenerator.RecipeData read(FriendlyByteBuf buf) {
+        int stringCount = buf.readVarInt();
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = buf.readUtf(MAX_STRING_LENGTH);
+        }
+
+        RecipeGenerator.RecipeData data = new RecipeGenerator.RecipeData();
+        data.dishName = strings[0];
+        data.totalWeightGrams = buf.readVarInt();
+        data.nutritionPer100g = buf.readFloat();
+        data.saturationPer100g = buf.readFloat();
+        data.expirationHours = buf.readVarInt();
+
+        int ingredientCount = buf.readVarInt();
+        String[] itemIds = new String[ingredientCount];
+        String[] amountTypes = new String[ingredientCount];
+        for (int i = 0; i < ingredientCount; i++) {
+            int itemRef = buf.readVarInt();
+            itemIds[i] = itemRef == 0 ? strings[buf.readVarInt()] : itemId(itemRef);
+            amountTypes[i] = strings[buf.readVarInt()];
+        }
+        data.ingredients = new ArrayList<>(ingredientCount);
+        for (int i = 0; i < ingredientCount; i++) {
+            data.ingredients.add(new RecipeGenerator.RecipeData.Ingredient(itemIds[i], amountTypes[i], buf.readFloat()));
+        }
+
+        int stepCount = buf.readVarInt();
+        data.steps = new ArrayList<>(stepCount);
+        for (int i = 0; i < stepCount; i++) {
+            String action = strings[buf.readVarInt()];
+            String description = strings[buf.readVarInt()];
+            data.steps.add(new RecipeGenerator.RecipeData.CookingStep(action, description));
+        }
+        return data;
+    }
+
+    /**
+     * Registry id + 1 for registered items, 0 for ids that must be sent as text
+     * Registry ids are synchronized to clients by Forge, so they are stable for the connection
+     */
+    private static int itemRef(String itemId) {
+        ResourceLocation location = ResourceLocation.tryParse(itemId);
+        if (location == null || !BuiltInRegistries.ITEM.containsKey(location)) {
+            return 0;
+        }
+        Item item = BuiltInRegistries.ITEM.get(location);
+        return BuiltInRegistries.ITEM.getId(item) + 1;
+    }
+
+    private static String itemId(int itemRef) {
+        Item item = BuiltInRegistries.ITEM.byId(itemRef - 1);
+        return BuiltInRegistries.ITEM.getKey(item != null ? item : Items.AIR).toString();
+    }
+
+    /**
+     * Insertion-ordered string table; repeated strings share one entry
+     */
+    private static class StringTable {
+        private final Map<String, Integer> indices = new LinkedHashMap<>();
+
+        int indexOf(String value) {
+            String key = value != null ? value : "";
+            Integer index = indices.get(key);
+            if (index == null) {
+                index = indices.size();
+                indices.put(key, index);
+            }
+            return index;
+        }
+
+        int size() {
+            return indices.size();
+        }
+
+        Iterable<String> values() {
+            return indices.keySet();
+        }
+    }
+}
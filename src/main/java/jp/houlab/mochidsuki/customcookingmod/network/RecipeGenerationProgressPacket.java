@@ -0,0 +1,86 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.screen.AIKitchenScreen;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Server to Client packet
+ * Sent while a recipe is streaming in, carrying one partial result
+ * (dish name, nutrition value or ingredient) so the client can show it before generation finishes,
+ * or the request's position in the generation queue while it waits
+ */
+public class RecipeGenerationProgressPacket {
+
+    public enum Kind {
+        DISH_NAME,
+        NUTRITION,
+        SATURATION,
+        INGREDIENT,
+        QUEUE_POSITION
+    }
+
+    private final Kind kind;
+    private final String text;    // Dish name, or ingredient item id
+    private final String detail;  // Ingredient amount type
+    private final float value;    // Nutrition/saturation per 100g, ingredient amount, or queue position
+
+    private RecipeGenerationProgressPacket(Kind kind, String text, String detail, float value) {
+        this.kind = kind;
+        this.text = text;
+        this.detail = detail;
+        this.value = value;
+    }
+
+    public static RecipeGenerationProgressPacket dishName(String dishName) {
+        return new RecipeGenerationProgressPacket(Kind.DISH_NAME, dishName, "", 0.0f);
+    }
+
+    public static RecipeGenerationProgressPacket nutrition(float nutritionPer100g) {
+        return new RecipeGenerationProgressPacket(Kind.NUTRITION, "", "", nutritionPer100g);
+    }
+
+    public static RecipeGenerationProgressPacket saturation(float saturationPer100g) {
+        return new RecipeGenerationProgressPacket(Kind.SATURATION, "", "", saturationPer100g);
+    }
+
+    public static RecipeGenerationProgressPacket ingredient(String itemId, String amountType, float amount) {
+        return new RecipeGenerationProgressPacket(Kind.INGREDIENT, itemId, amountType, amount);
+    }
+
+    /**
+     * Position of the request in the generation queue (1 = next), or 0 once it is being generated
+     */
+    public static RecipeGenerationProgressPacket queuePosition(int position) {
+        return new RecipeGenerationProgressPacket(Kind.QUEUE_POSITION, "", "", position);
+    }
+
+    public static void encode(RecipeGenerationProgressPacket packet, FriendlyByteBuf buf) {
+        buf.writeEnum(packet.kind);
+        buf.writeUtf(packet.text);
+        buf.writeUtf(packet.detail);
+        buf.writeFloat(packet.value);
+    }
+
+    public static RecipeGenerationProgressPacket decode(FriendlyByteBuf buf) {
+        Kind kind = buf.readEnum(Kind.class);
+        String text = buf.readUtf();
+        String detail = buf.readUtf();
+        float value = buf.readFloat();
+        return new RecipeGenerationProgressPacket(kind, text, detail, value);
+    }
+
+    public static void handle(RecipeGenerationProgressPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            // Client-side handling: show the partial result in the open AI Kitchen screen
+            if (Minecraft.getInstance().screen instanceof AIKitchenScreen screen) {
+                screen.onRecipeProgress(packet.kind, packet.text, packet.detail, packet.value);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
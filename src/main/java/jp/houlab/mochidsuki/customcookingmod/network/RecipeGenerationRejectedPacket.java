@@ -0,0 +1,59 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.screen.AIKitchenScreen;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Server to Client packet
+ * Sent immediately when a generation request is refused before any work was done,
+ * with a hint of when a retry may succeed
+ */
+public class RecipeGenerationRejectedPacket {
+
+    public enum Reason {
+        KITCHEN_BUSY,         // This kitchen is already generating a recipe
+        PLAYER_RATE_LIMITED,  // The player sent too many requests
+        SERVER_RATE_LIMITED,  // The server as a whole is at its request limit
+        QUEUE_FULL            // The generation queue is full
+    }
+
+    private final Reason reason;
+    private final long retryAfterMillis;  // -1 if unknown
+
+    public RecipeGenerationRejectedPacket(Reason reason, long retryAfterMillis) {
+        this.reason = reason;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public static void encode(RecipeGenerationRejectedPacket packet, FriendlyByteBuf buf) {
+        buf.writeEnum(packet.reason);
+        buf.writeVarLong(packet.retryAfterMillis + 1);
+    }
+
+    public static RecipeGenerationRejectedPacket decode(FriendlyByteBuf buf) {
+        Reason reason = buf.readEnum(Reason.class);
+        long retryAfterMillis = buf.readVarLong() - 1;
+        return new RecipeGenerationRejectedPacket(reason, retryAfterMillis);
+    }
+
+    public static void handle(RecipeGenerationRejectedPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            // Client-side handling: show the reason and hold the generate button until the retry time
+            if (Minecraft.getInstance().screen instanceof AIKitchenScreen screen) {
+                String key = "gui.customcookingmod.ai_kitchen.rejected." + packet.reason.name().toLowerCase(Locale.ROOT);
+                Component message = packet.retryAfterMillis > 0
+                        ? Component.translatable(key + ".retry", (packet.retryAfterMillis + 999) / 1000)
+                        : Component.translatable(key);
+                screen.onRequestRejected(message, packet.retryAfterMillis);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
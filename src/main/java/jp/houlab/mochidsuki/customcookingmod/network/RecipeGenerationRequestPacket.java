@@ -1,15 +1,21 @@
 package jp.houlab.mochidsuki.customcookingmod.network;
 
 import com.mojang.logging.LogUtils;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerationService;
 import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeStreamListener;
 import jp.houlab.mochidsuki.customcookingmod.blockentity.AIKitchenBlockEntity;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.network.NetworkEvent;
 import org.slf4j.Logger;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 /**
@@ -54,36 +60,138 @@ public class RecipeGenerationRequestPacket {
             LOGGER.info("Received recipe generation request from {}: {} (category: {})",
                     player.getName().getString(), packet.dishName, packet.category);
 
-            // Generate recipe using AI (run async to avoid blocking server thread)
-            RecipeGenerator generator = new RecipeGenerator();
-
-            // For now, we'll run this synchronously
-            // TODO: Move to async thread pool
-            RecipeGenerator.RecipeData recipeData = generator.generateRecipeForDish(packet.dishName, packet.category);
-
-            if (recipeData != null) {
-                // Store the cooked food in the AI Kitchen block entity
-                BlockEntity blockEntity = player.level().getBlockEntity(packet.kitchenPos);
-                if (blockEntity instanceof AIKitchenBlockEntity kitchen) {
-                    kitchen.storeFood(
-                            recipeData.dishName,
-                            recipeData.totalWeightGrams,
-                            recipeData.nutritionPer100g,
-                            recipeData.saturationPer100g
-                    );
-                    LOGGER.info("Stored {}g of {} in AI Kitchen at {}",
-                            recipeData.totalWeightGrams, recipeData.dishName, packet.kitchenPos);
-                }
+            // Look the service up first so a stopped service never leaves the kitchen marked busy
+            RecipeGenerationService service;
+            try {
+                service = RecipeGenerationService.get();
+            } catch (IllegalStateException e) {
+                LOGGER.error("Rejecting recipe request from {}: {}", player.getName().getString(), e.getMessage());
+                ModNetworking.sendToPlayer(RecipeGenerationResponsePacket.failure(
+                        "Failed to generate recipe. Please check server logs."), player);
+                return;
+            }
+
+            // Refuse requests over the rate limits, or for a kitchen that is already generating, before any work is done
+            ServerLevel level = player.serverLevel();
+            GlobalPos kitchen = GlobalPos.of(level.dimension(), packet.kitchenPos);
+            RecipeGenerationRejectedPacket rejection = RecipeRequestLimiter.tryAcquire(player, kitchen);
+            if (rejection != null) {
+                ModNetworking.sendToPlayer(rejection, player);
+                return;
+            }
 
-                // Send response back to client
-                ModNetworking.sendToPlayer(new RecipeGenerationResponsePacket(true, recipeData), player);
-                LOGGER.info("Successfully generated recipe for: {}", packet.dishName);
-            } else {
-                // Send failure response
-                ModNetworking.sendToPlayer(new RecipeGenerationResponsePacket(false, null), player);
-                LOGGER.error("Failed to generate recipe for: {}", packet.dishName);
+            // Queue generation on the worker pool; the server thread only enqueues the job
+            CompletableFuture<RecipeGenerator.RecipeData> future;
+            try {
+                future = service.submit(packet.dishName, packet.category, new ProgressForwarder(player),
+                        RecipeQueueTracker.ownerFor(player, kitchen));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Recipe generation queue is full, rejecting request from {}", player.getName().getString());
+                RecipeRequestLimiter.release(kitchen);
+                ModNetworking.sendToPlayer(new RecipeGenerationRejectedPacket(
+                        RecipeGenerationRejectedPacket.Reason.QUEUE_FULL, -1), player);
+                return;
             }
+
+            // The future may be shared with other players requesting the same dish;
+            // each requester still gets its own kitchen fill, queue position updates and response
+            RecipeQueueTracker.Waiting waiting = RecipeQueueTracker.track(player, packet.dishName, packet.category);
+            future.whenComplete((recipeData, throwable) -> level.getServer().execute(() -> {
+                RecipeRequestLimiter.release(kitchen);
+                RecipeQueueTracker.untrack(waiting);
+                if (throwable != null) {
+                    if (unwrap(throwable) instanceof RejectedExecutionException) {
+                        ModNetworking.sendToPlayer(new RecipeGenerationRejectedPacket(
+                                RecipeGenerationRejectedPacket.Reason.QUEUE_FULL, -1), player);
+                        return;
+                    }
+                    LOGGER.error("Recipe generation failed for: {}", packet.dishName, throwable);
+                }
+                onGenerationComplete(packet, player, level, throwable == null ? recipeData : null);
+            }));
         });
         context.setPacketHandled(true);
     }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    /**
+     * Apply a finished generation to the world and notify the player
+     * Must be called on the server thread
+     */
+    private static void onGenerationComplete(RecipeGenerationRequestPacket packet, ServerPlayer player,
+                                             ServerLevel level, RecipeGenerator.RecipeData recipeData) {
+        if (recipeData != null) {
+            // Store the cooked food in the AI Kitchen block entity
+            if (level.isLoaded(packet.kitchenPos)
+                    && level.getBlockEntity(packet.kitchenPos) instanceof AIKitchenBlockEntity kitchen) {
+                kitchen.storeFood(
+                        recipeData.dishName,
+                        recipeData.totalWeightGrams,
+                        recipeData.nutritionPer100g,
+                        recipeData.saturationPer100g
+                );
+                LOGGER.info("Stored {}g of {} in AI Kitchen at {}",
+                        recipeData.totalWeightGrams, recipeData.dishName, packet.kitchenPos);
+            }
+            LOGGER.info("Successfully generated recipe for: {}", packet.dishName);
+        } else {
+            LOGGER.error("Failed to generate recipe for: {}", packet.dishName);
+        }
+
+        // Send response back to client (if still online)
+        if (player.hasDisconnected()) {
+            return;
+        }
+        if (recipeData != null) {
+            // Send only the content hash if the client's catalog already holds this recipe
+            boolean clientHasRecipe = RecipeCatalogTracker.markSent(player, recipeData);
+            ModNetworking.sendToPlayer(RecipeGenerationResponsePacket.success(recipeData, !clientHasRecipe), player);
+        } else {
+            ModNetworking.sendToPlayer(RecipeGenerationResponsePacket.failure(
+                    "Failed to generate recipe. Please check server logs."), player);
+        }
+    }
+
+    /**
+     * Forwards streamed partial results to the requesting player
+     * Called on the HTTP client thread, so each send hops to the server thread
+     */
+    private static class ProgressForwarder implements RecipeStreamListener {
+        private final ServerPlayer player;
+
+        ProgressForwarder(ServerPlayer player) {
+            this.player = player;
+        }
+
+        private void send(RecipeGenerationProgressPacket packet) {
+            player.server.execute(() -> {
+                if (!player.hasDisconnected()) {
+                    ModNetworking.sendToPlayer(packet, player);
+                }
+            });
+        }
+
+        @Override
+        public void onDishName(String dishName) {
+            send(RecipeGenerationProgressPacket.dishName(dishName));
+        }
+
+        @Override
+        public void onNutritionPer100g(float nutritionPer100g) {
+            send(RecipeGenerationProgressPacket.nutrition(nutritionPer100g));
+        }
+
+        @Override
+        public void onSaturationPer100g(float saturationPer100g) {
+            send(RecipeGenerationProgressPacket.saturation(saturationPer100g));
+        }
+
+        @Override
+        public void onIngredient(RecipeGenerator.RecipeData.Ingredient ingredient) {
+            send(RecipeGenerationProgressPacket.ingredient(ingredient.itemId, ingredient.amountType, ingredient.amount));
+        }
+    }
 }
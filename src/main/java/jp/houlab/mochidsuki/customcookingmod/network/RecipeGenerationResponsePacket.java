@@ -1,9 +1,9 @@
 package jp.houlab.mochidsuki.customcookingmod.network;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
 import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerator;
+import jp.houlab.mochidsuki.customcookingmod.client.ClientRecipeCatalog;
+import jp.houlab.mochidsuki.customcookingmod.screen.AIKitchenScreen;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
@@ -18,53 +18,47 @@ import java.util.function.Supplier;
  */
 public class RecipeGenerationResponsePacket {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final Gson GSON = new Gson();
 
     private final boolean success;
-    private final RecipeGenerator.RecipeData recipeData;
+    private final long recipeHash;
+    private final RecipeGenerator.RecipeData recipeData;  // null when the client already holds the recipe
+    private final String errorMessage;
 
-    public RecipeGenerationResponsePacket(boolean success, RecipeGenerator.RecipeData recipeData) {
+    private RecipeGenerationResponsePacket(boolean success, long recipeHash, RecipeGenerator.RecipeData recipeData, String errorMessage) {
         this.success = success;
+        this.recipeHash = recipeHash;
         this.recipeData = recipeData;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Create a success response
+     *
+     * @param inline false to send only the content hash (the client's catalog already holds the recipe)
+     */
+    public static RecipeGenerationResponsePacket success(RecipeGenerator.RecipeData recipeData, boolean inline) {
+        return new RecipeGenerationResponsePacket(true, recipeData.contentHash(), inline ? recipeData : null, "");
+    }
+
+    /**
+     * Create a failure response with a message shown to the player
+     */
+    public static RecipeGenerationResponsePacket failure(String errorMessage) {
+        return new RecipeGenerationResponsePacket(false, 0L, null, errorMessage);
     }
 
     public static void encode(RecipeGenerationResponsePacket packet, FriendlyByteBuf buf) {
         buf.writeBoolean(packet.success);
 
-        if (packet.success && packet.recipeData != null) {
-            // Serialize RecipeData to JSON
-            JsonObject json = new JsonObject();
-            json.addProperty("dishName", packet.recipeData.dishName);
-            json.addProperty("totalWeightGrams", packet.recipeData.totalWeightGrams);
-            json.addProperty("nutritionPer100g", packet.recipeData.nutritionPer100g);
-            json.addProperty("saturationPer100g", packet.recipeData.saturationPer100g);
-            json.addProperty("expirationHours", packet.recipeData.expirationHours);
-
-            // Serialize ingredients
-            JsonObject ingredientsObj = new JsonObject();
-            for (int i = 0; i < packet.recipeData.ingredients.size(); i++) {
-                RecipeGenerator.RecipeData.Ingredient ing = packet.recipeData.ingredients.get(i);
-                JsonObject ingObj = new JsonObject();
-                ingObj.addProperty("item", ing.itemId);
-                ingObj.addProperty("amountType", ing.amountType);
-                ingObj.addProperty("amount", ing.amount);
-                ingredientsObj.add("ing" + i, ingObj);
-            }
-            json.add("ingredients", ingredientsObj);
-
-            // Serialize steps
-            JsonObject stepsObj = new JsonObject();
-            for (int i = 0; i < packet.recipeData.steps.size(); i++) {
-                RecipeGenerator.RecipeData.CookingStep step = packet.recipeData.steps.get(i);
-                JsonObject stepObj = new JsonObject();
-                stepObj.addProperty("action", step.action);
-                stepObj.addProperty("description", step.description);
-                stepsObj.add("step" + i, stepObj);
-            }
-            json.add("steps", stepsObj);
+        if (!packet.success) {
+            buf.writeUtf(packet.errorMessage);
+            return;
+        }
 
-            String jsonString = GSON.toJson(json);
-            buf.writeUtf(jsonString);
+        buf.writeLong(packet.recipeHash);
+        buf.writeBoolean(packet.recipeData != null);
+        if (packet.recipeData != null) {
+            RecipeDataCodec.write(buf, packet.recipeData);
         }
     }
 
@@ -72,42 +66,12 @@ public class RecipeGenerationResponsePacket {
         boolean success = buf.readBoolean();
 
         if (!success) {
-            return new RecipeGenerationResponsePacket(false, null);
-        }
-
-        // Deserialize JSON
-        String jsonString = buf.readUtf();
-        JsonObject json = GSON.fromJson(jsonString, JsonObject.class);
-
-        RecipeGenerator.RecipeData recipeData = new RecipeGenerator.RecipeData();
-        recipeData.dishName = json.get("dishName").getAsString();
-        recipeData.totalWeightGrams = json.get("totalWeightGrams").getAsInt();
-        recipeData.nutritionPer100g = json.get("nutritionPer100g").getAsFloat();
-        recipeData.saturationPer100g = json.get("saturationPer100g").getAsFloat();
-        recipeData.expirationHours = json.get("expirationHours").getAsInt();
-
-        // Deserialize ingredients
-        recipeData.ingredients = new java.util.ArrayList<>();
-        JsonObject ingredientsObj = json.getAsJsonObject("ingredients");
-        for (String key : ingredientsObj.keySet()) {
-            JsonObject ingObj = ingredientsObj.getAsJsonObject(key);
-            String itemId = ingObj.get("item").getAsString();
-            String amountType = ingObj.get("amountType").getAsString();
-            float amount = ingObj.get("amount").getAsFloat();
-            recipeData.ingredients.add(new RecipeGenerator.RecipeData.Ingredient(itemId, amountType, amount));
+            return failure(buf.readUtf());
         }
 
-        // Deserialize steps
-        recipeData.steps = new java.util.ArrayList<>();
-        JsonObject stepsObj = json.getAsJsonObject("steps");
-        for (String key : stepsObj.keySet()) {
-            JsonObject stepObj = stepsObj.getAsJsonObject(key);
-            String action = stepObj.get("action").getAsString();
-            String description = stepObj.get("description").getAsString();
-            recipeData.steps.add(new RecipeGenerator.RecipeData.CookingStep(action, description));
-        }
-
-        return new RecipeGenerationResponsePacket(true, recipeData);
+        long recipeHash = buf.readLong();
+        RecipeGenerator.RecipeData recipeData = buf.readBoolean() ? RecipeDataCodec.read(buf) : null;
+        return new RecipeGenerationResponsePacket(true, recipeHash, recipeData, "");
     }
 
     public static void handle(RecipeGenerationResponsePacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
@@ -116,26 +80,47 @@ public class RecipeGenerationResponsePacket {
             // Client-side handling
             Minecraft minecraft = Minecraft.getInstance();
 
-            if (packet.success && packet.recipeData != null) {
-                LOGGER.info("Received recipe generation response: {}", packet.recipeData.dishName);
+            // Resolve hash-only responses from the local catalog; remember inline recipes
+            ClientRecipeCatalog catalog = ClientRecipeCatalog.get();
+            RecipeGenerator.RecipeData recipeData = packet.recipeData;
+            if (packet.success) {
+                if (recipeData != null) {
+                    catalog.put(packet.recipeHash, recipeData);
+                } else {
+                    recipeData = catalog.get(packet.recipeHash);
+                }
+            }
+
+            if (packet.success && recipeData != null) {
+                LOGGER.info("Received recipe generation response: {}", recipeData.dishName);
+
+                if (minecraft.screen instanceof AIKitchenScreen screen) {
+                    screen.setStatusMessage(Component.translatable("gui.customcookingmod.ai_kitchen.success"));
+                }
 
                 // Display success message to player
                 if (minecraft.player != null) {
                     minecraft.player.displayClientMessage(
-                            Component.literal("§aRecipe generated successfully: §6" + packet.recipeData.dishName),
+                            Component.literal("§aRecipe generated successfully: §6" + recipeData.dishName),
                             false
                     );
 
-                    // TODO: Register the recipe dynamically
                     // TODO: Open recipe book or display recipe details
                 }
             } else {
-                LOGGER.error("Recipe generation failed");
+                String errorMessage = packet.success
+                        ? "Recipe " + Long.toHexString(packet.recipeHash) + " is missing from the local catalog"
+                        : packet.errorMessage;
+                LOGGER.error("Recipe generation failed: {}", errorMessage);
+
+                if (minecraft.screen instanceof AIKitchenScreen screen) {
+                    screen.setStatusMessage(Component.translatable("gui.customcookingmod.ai_kitchen.error"));
+                }
 
                 // Display error message
                 if (minecraft.player != null) {
                     minecraft.player.displayClientMessage(
-                            Component.literal("§cFailed to generate recipe. Please check server logs."),
+                            Component.literal("§c" + errorMessage),
                             false
                     );
                 }
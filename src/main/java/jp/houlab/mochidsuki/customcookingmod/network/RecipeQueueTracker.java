@@ -0,0 +1,108 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.Config;
+import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
+import jp.houlab.mochidsuki.customcookingmod.ai.FairRecipeQueue;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeGenerationService;
+import jp.houlab.mochidsuki.customcookingmod.ai.RecipeKey;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queue lanes and queue positions of players' generation requests
+ * Decides which lane (and weight) a request is scheduled in, and keeps each waiting player
+ * informed of their position in the fair queue.
+ * Accessed on the server thread only.
+ */
+@Mod.EventBusSubscriber(modid = CustomcookingmodMain.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class RecipeQueueTracker {
+    // Ticks between queue position updates
+    private static final int UPDATE_INTERVAL = 10;
+
+    private static final List<Waiting> WAITING = new ArrayList<>();
+    private static int ticks = 0;
+
+    /**
+     * A request waiting for its generation to finish
+     */
+    public static class Waiting {
+        private final ServerPlayer player;
+        private final RecipeKey key;
+        private int lastPosition = 0;  // 0: not queued (generating)
+
+        private Waiting(ServerPlayer player, RecipeKey key) {
+            this.player = player;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Queue lane for a request: a priority kitchen's shared lane, or the player's own lane
+     */
+    public static FairRecipeQueue.Owner ownerFor(ServerPlayer player, GlobalPos kitchen) {
+        if (Config.schedulerPriorityKitchens.contains(kitchen)) {
+            return new FairRecipeQueue.Owner("kitchen:" + kitchen, Config.schedulerPriorityKitchenWeight);
+        }
+        int weight = player.hasPermissions(2) ? Config.schedulerOperatorWeight : 1;
+        return new FairRecipeQueue.Owner(player.getStringUUID(), weight);
+    }
+
+    /**
+     * Start reporting the queue position of a submitted request to its player
+     */
+    public static Waiting track(ServerPlayer player, String dishName, String category) {
+        Waiting waiting = new Waiting(player, RecipeKey.of(dishName, category));
+        WAITING.add(waiting);
+        update();
+        return waiting;
+    }
+
+    /**
+     * Stop reporting (called when the generation finishes)
+     */
+    public static void untrack(Waiting waiting) {
+        WAITING.remove(waiting);
+    }
+
+    /**
+     * Forget every waiting request (called when the server stops, so no player is kept across an integrated-server restart)
+     */
+    public static void reset() {
+        WAITING.clear();
+        ticks = 0;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && ++ticks % UPDATE_INTERVAL == 0 && !WAITING.isEmpty()) {
+            update();
+        }
+    }
+
+    /**
+     * Send each waiting player its current queue position if it changed
+     */
+    private static void update() {
+        Map<Object, Integer> positions;
+        try {
+            positions = RecipeGenerationService.get().getQueue().positions();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        WAITING.removeIf(waiting -> waiting.player.hasDisconnected());
+        for (Waiting waiting : WAITING) {
+            int position = positions.getOrDefault(waiting.key, 0);
+            if (position != waiting.lastPosition) {
+                waiting.lastPosition = position;
+                ModNetworking.sendToPlayer(RecipeGenerationProgressPacket.queuePosition(position), waiting.player);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+import jp.houlab.mochidsuki.customcookingmod.Config;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Admission control for AI recipe generation requests
+ * A request must find its kitchen idle and a token in both the player's bucket and the global bucket;
+ * otherwise it is rejected before it reaches the generation service, so it costs no API call.
+ * Accessed on the server thread only.
+ */
+public class RecipeRequestLimiter {
+    private static final Map<UUID, TokenBucket> PLAYER_BUCKETS = new HashMap<>();
+    private static final Set<GlobalPos> BUSY_KITCHENS = new HashSet<>();
+    private static TokenBucket globalBucket;
+
+    // Statistics
+    private static long accepted = 0;
+    private static long rejectedKitchenBusy = 0;
+    private static long rejectedPlayer = 0;
+    private static long rejectedGlobal = 0;
+
+    /**
+     * Try to admit a request
+     * On success the kitchen is marked busy until release is called
+     *
+     * @return null if admitted, otherwise the rejection to send back
+     */
+    public static RecipeGenerationRejectedPacket tryAcquire(ServerPlayer player, GlobalPos kitchen) {
+        if (BUSY_KITCHENS.contains(kitchen)) {
+            rejectedKitchenBusy++;
+            return new RecipeGenerationRejectedPacket(RecipeGenerationRejectedPacket.Reason.KITCHEN_BUSY, -1);
+        }
+
+        TokenBucket playerBucket = PLAYER_BUCKETS.computeIfAbsent(player.getUUID(),
+                uuid -> new TokenBucket(Config.requestLimitPlayerBurst, Config.requestLimitPlayerPerMinute));
+        long playerWait = playerBucket.millisUntilAvailable();
+        if (playerWait > 0) {
+            rejectedPlayer++;
+            return new RecipeGenerationRejectedPacket(RecipeGenerationRejectedPacket.Reason.PLAYER_RATE_LIMITED, playerWait);
+        }
+
+        if (globalBucket == null) {
+            globalBucket = new TokenBucket(Config.requestLimitGlobalBurst, Config.requestLimitGlobalPerMinute);
+        }
+        long globalWait = globalBucket.millisUntilAvailable();
+        if (globalWait > 0) {
+            rejectedGlobal++;
+            return new RecipeGenerationRejectedPacket(RecipeGenerationRejectedPacket.Reason.SERVER_RATE_LIMITED, globalWait);
+        }
+
+        // Take both tokens only once both checks passed, so a global rejection does not cost the player a token
+        playerBucket.take();
+        globalBucket.take();
+        BUSY_KITCHENS.add(kitchen);
+        accepted++;
+        return null;
+    }
+
+    /**
+     * Mark the kitchen idle again (called when its generation finishes)
+     */
+    public static void release(GlobalPos kitchen) {
+        BUSY_KITCHENS.remove(kitchen);
+    }
+
+    /**
+     * Drop buckets that have refilled completely (called on logout)
+     * Partially drained buckets are kept so logging out and back in does not reset the limit
+     */
+    public static void prune() {
+        PLAYER_BUCKETS.values().removeIf(TokenBucket::isFull);
+    }
+
+    /**
+     * Reset all buckets and locks (called when the server stops, so config changes apply on the next start)
+     */
+    public static void reset() {
+        PLAYER_BUCKETS.clear();
+        BUSY_KITCHENS.clear();
+        globalBucket = null;
+    }
+
+    public static long getAcceptedCount() {
+        return accepted;
+    }
+
+    public static long getRejectedKitchenBusyCount() {
+        return rejectedKitchenBusy;
+    }
+
+    public static long getRejectedPlayerCount() {
+        return rejectedPlayer;
+    }
+
+    public static long getRejectedGlobalCount() {
+        return rejectedGlobal;
+    }
+
+    public static int getBusyKitchenCount() {
+        return BUSY_KITCHENS.size();
+    }
+}
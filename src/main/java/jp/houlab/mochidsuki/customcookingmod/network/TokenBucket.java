@@ -0,0 +1,56 @@
+package jp.houlab.mochidsuki.customcookingmod.network;
+
+/**
+ * Token Bucket
+ * Holds up to a burst of tokens and refills them at a steady rate; each request takes one token.
+ * Not thread-safe: used on the server thread only.
+ */
+public class TokenBucket {
+    private final int capacity;
+    private final double tokensPerMilli;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity        Maximum tokens (burst size); the bucket starts full
+     * @param tokensPerMinute Refill rate
+     */
+    public TokenBucket(int capacity, double tokensPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerMilli = tokensPerMinute / 60_000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.currentTimeMillis();
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMilli);
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * Milliseconds until a token is available, or 0 if one is available now
+     */
+    public long millisUntilAvailable() {
+        refill(System.currentTimeMillis());
+        return tokens >= 1.0 ? 0 : (long) Math.ceil((1.0 - tokens) / tokensPerMilli);
+    }
+
+    /**
+     * Take one token; callers check millisUntilAvailable first
+     */
+    public void take() {
+        refill(System.currentTimeMillis());
+        tokens -= 1.0;
+    }
+
+    /**
+     * Whether the bucket has refilled completely (an idle bucket can be dropped)
+     */
+    public boolean isFull() {
+        refill(System.currentTimeMillis());
+        return tokens >= capacity;
+    }
+}
@@ -4,6 +4,7 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import jp.houlab.mochidsuki.customcookingmod.CustomcookingmodMain;
 import jp.houlab.mochidsuki.customcookingmod.menu.AIKitchenMenu;
 import jp.houlab.mochidsuki.customcookingmod.network.ModNetworking;
+import jp.houlab.mochidsuki.customcookingmod.network.RecipeGenerationProgressPacket;
 import jp.houlab.mochidsuki.customcookingmod.network.RecipeGenerationRequestPacket;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
@@ -14,6 +15,9 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Inventory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * AI Kitchen Screen
  * Client-side GUI for the AI Kitchen
@@ -26,6 +30,8 @@ public class AIKitchenScreen extends AbstractContainerScreen<AIKitchenMenu> {
     private EditBox categoryInput;
     private Button generateButton;
     private Component statusMessage;
+    private final List<Component> progressLines = new ArrayList<>();
+    private long retryAllowedAt = 0;  // System time before which the generate button stays disabled
 
     public AIKitchenScreen(AIKitchenMenu menu, Inventory playerInventory, Component title) {
         super(menu, playerInventory, title);
@@ -84,6 +90,7 @@ public class AIKitchenScreen extends AbstractContainerScreen<AIKitchenMenu> {
                 this.menu.getBlockEntity().getBlockPos()
         ));
         this.statusMessage = Component.translatable("gui.customcookingmod.ai_kitchen.generating");
+        this.progressLines.clear();
         this.generateButton.active = false;
     }
 
@@ -112,6 +119,34 @@ public class AIKitchenScreen extends AbstractContainerScreen<AIKitchenMenu> {
             int relY = (this.height - this.imageHeight) / 2;
             guiGraphics.drawString(this.font, this.statusMessage, relX + 10, relY + 95, 0xFFFFFF, false);
         }
+
+        // Render partial recipe results beside the panel while generation streams in
+        if (!this.progressLines.isEmpty()) {
+            int relX = (this.width - this.imageWidth) / 2;
+            int relY = (this.height - this.imageHeight) / 2;
+            for (int i = 0; i < this.progressLines.size(); i++) {
+                guiGraphics.drawString(this.font, this.progressLines.get(i),
+                        relX + this.imageWidth + 4, relY + 4 + i * 10, 0xFFFFFF, true);
+            }
+        }
+    }
+
+    /**
+     * Show a partial result received while the recipe is still being generated
+     */
+    public void onRecipeProgress(RecipeGenerationProgressPacket.Kind kind, String text, String detail, float value) {
+        switch (kind) {
+            case DISH_NAME -> this.progressLines.add(Component.literal("§6" + text));
+            case NUTRITION -> this.progressLines.add(Component.translatable(
+                    "gui.customcookingmod.ai_kitchen.progress.nutrition", String.format("%.1f", value)));
+            case SATURATION -> this.progressLines.add(Component.translatable(
+                    "gui.customcookingmod.ai_kitchen.progress.saturation", String.format("%.1f", value)));
+            case INGREDIENT -> this.progressLines.add(Component.literal(
+                    "§7- " + text + " × " + String.format("%.2f", value) + ("grams".equals(detail) ? "g" : "")));
+            case QUEUE_POSITION -> this.statusMessage = value > 0
+                    ? Component.translatable("gui.customcookingmod.ai_kitchen.queued", (int) value)
+                    : Component.translatable("gui.customcookingmod.ai_kitchen.generating");
+        }
     }
 
     public void setStatusMessage(Component message) {
@@ -119,6 +154,24 @@ public class AIKitchenScreen extends AbstractContainerScreen<AIKitchenMenu> {
         this.generateButton.active = true;
     }
 
+    /**
+     * Show why the server refused the request and keep the generate button disabled until the retry time
+     */
+    public void onRequestRejected(Component message, long retryAfterMillis) {
+        this.statusMessage = message;
+        this.retryAllowedAt = retryAfterMillis > 0 ? System.currentTimeMillis() + retryAfterMillis : 0;
+        this.generateButton.active = this.retryAllowedAt == 0;
+    }
+
+    @Override
+    protected void containerTick() {
+        super.containerTick();
+        if (this.retryAllowedAt != 0 && System.currentTimeMillis() >= this.retryAllowedAt) {
+            this.retryAllowedAt = 0;
+            this.generateButton.active = true;
+        }
+    }
+
     @Override
     public void resize(net.minecraft.client.Minecraft minecraft, int width, int height) {
         String dishName = this.dishNameInput.getValue();